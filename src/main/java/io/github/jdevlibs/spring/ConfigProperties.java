@@ -28,11 +28,54 @@ public final class ConfigProperties {
     }
     public static final String JSON_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss";
     public static final String JSON_DATE_FORMAT_KEY = "conf.json.date.format";
+    public static final int JSON_CACHE_SIZE = 512;
+    public static final String JSON_CACHE_SIZE_KEY = "conf.json.cache.size";
+    public static final String JSON_BUFFER_RECYCLING_KEY = "conf.json.buffer.recycling";
+    public static final String JSON_ACCESSOR_MODULE = "none";
+    public static final String JSON_ACCESSOR_MODULE_KEY = "conf.json.accessor.module";
+    public static final int JSON_BODY_BUFFER_SIZE = 16 * 1024;
+    public static final String JSON_BODY_BUFFER_SIZE_KEY = "conf.json.body.buffer.size";
 
     public static String getJsonDateFormat() {
         return System.getProperty(JSON_DATE_FORMAT_KEY, JSON_DATE_FORMAT);
     }
 
+    /**
+     * The maximum entries of each JsonUtils reader, writer and type cache, the oldest entry is evicted when full.
+     * @return The cache size, default 512
+     */
+    public static int getJsonCacheSize() {
+        return Integer.getInteger(JSON_CACHE_SIZE_KEY, JSON_CACHE_SIZE);
+    }
+
+    /**
+     * Jackson recycles parser buffers by ThreadLocal, which is not reused by short-lived virtual threads.
+     * Set -Dconf.json.buffer.recycling=false for disable when most calls run on virtual threads.
+     * @return true if Jackson buffer recycling is enabled (default)
+     */
+    public static boolean isJsonBufferRecycling() {
+        return Boolean.parseBoolean(System.getProperty(JSON_BUFFER_RECYCLING_KEY, "true"));
+    }
+
+    /**
+     * The generated accessor module of Jackson mappers, replaces the reflective field access.
+     * Set -Dconf.json.accessor.module=blackbird (com.fasterxml.jackson.module:jackson-module-blackbird)
+     * or afterburner (com.fasterxml.jackson.module:jackson-module-afterburner), the module must be in classpath.
+     * @return The accessor module name, default none
+     */
+    public static String getJsonAccessorModule() {
+        return System.getProperty(JSON_ACCESSOR_MODULE_KEY, JSON_ACCESSOR_MODULE);
+    }
+
+    /**
+     * The maximum size of json request model which is serialized in memory and sent with Content-Length,
+     * the larger model is streamed (chunked). Set -Dconf.json.body.buffer.size=0 for always stream.
+     * @return The buffer size in bytes, default 16 KiB
+     */
+    public static int getJsonBodyBufferSize() {
+        return Integer.getInteger(JSON_BODY_BUFFER_SIZE_KEY, JSON_BODY_BUFFER_SIZE);
+    }
+
     public static String getConfigValue(String property) {
         return System.getProperty(property);
     }
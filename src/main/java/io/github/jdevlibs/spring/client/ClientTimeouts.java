@@ -0,0 +1,106 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client;
+
+import okhttp3.OkHttpClient;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Timeout overrides of a call, attached to the http request as tag.
+ * The call timeout is applied by {@link okhttp3.Call#timeout()}, the connect, read and write timeouts
+ * are applied by a derived client of {@link DerivedClientCache}.
+ * @author supot.jdev
+ * @version 1.0
+ */
+final class ClientTimeouts {
+    private final Duration call;
+    private final Duration connect;
+    private final Duration read;
+    private final Duration write;
+    private final ClientTimeouts clientKey;
+
+    ClientTimeouts(Duration call, Duration connect, Duration read, Duration write) {
+        this.call = call;
+        this.connect = connect;
+        this.read = read;
+        this.write = write;
+        if (connect == null && read == null && write == null) {
+            this.clientKey = null;
+        } else {
+            this.clientKey = call == null ? this : new ClientTimeouts(null, connect, read, write);
+        }
+    }
+
+    /**
+     * Create timeouts of request
+     * @param req The request object
+     * @return The timeouts, null when the request has no timeout
+     */
+    static ClientTimeouts of(io.github.jdevlibs.spring.client.request.Request req) {
+        if (req.getCallTimeout() == null && req.getConnectTimeout() == null
+                && req.getReadTimeout() == null && req.getWriteTimeout() == null) {
+            return null;
+        }
+        return new ClientTimeouts(req.getCallTimeout(), req.getConnectTimeout(), req.getReadTimeout(),
+                req.getWriteTimeout());
+    }
+
+    Duration getCall() {
+        return call;
+    }
+
+    /**
+     * @return The key of derived client (without call timeout), null when no client timeout
+     */
+    ClientTimeouts clientKey() {
+        return clientKey;
+    }
+
+    OkHttpClient.Builder apply(OkHttpClient.Builder builder) {
+        if (connect != null) {
+            builder.connectTimeout(connect);
+        }
+        if (read != null) {
+            builder.readTimeout(read);
+        }
+        if (write != null) {
+            builder.writeTimeout(write);
+        }
+        return builder;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ClientTimeouts)) {
+            return false;
+        }
+        ClientTimeouts that = (ClientTimeouts) o;
+        return Objects.equals(call, that.call) && Objects.equals(connect, that.connect)
+                && Objects.equals(read, that.read) && Objects.equals(write, that.write);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(call, connect, read, write);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client;
+
+import io.github.jdevlibs.spring.utils.DataFormat;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <pre>
+ * Interceptor of binary {@link DataFormat} negotiation. When the server rejects the binary body
+ * with 415 (Unsupported Media Type), the call is sent again as json and the host (host:port)
+ * is remembered for send json only.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+final class DataFormatFallback implements Interceptor {
+    private static final int HTTP_UNSUPPORTED_MEDIA_TYPE = 415;
+    private static final String HEADER_ACCEPT = "Accept";
+    private static final Logger logger = LoggerFactory.getLogger(DataFormatFallback.class);
+
+    private final DataFormat format;
+    private final MediaType jsonType;
+    private final Set<String> jsonHosts = ConcurrentHashMap.newKeySet();
+
+    DataFormatFallback(DataFormat format, MediaType jsonType) {
+        this.format = format;
+        this.jsonType = jsonType;
+    }
+
+    /**
+     * The Accept header of format, the json is accepted with lower preference.
+     * @param format The data format
+     * @return The value of Accept header
+     */
+    static String accept(DataFormat format) {
+        return format.getMediaType() + ", " + DataFormat.JSON.getMediaType() + ";q=0.9";
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String host = host(request.url());
+        if (jsonHosts.contains(host)) {
+            return chain.proceed(toJson(request));
+        }
+
+        Response response = chain.proceed(request);
+        if (response.code() != HTTP_UNSUPPORTED_MEDIA_TYPE || !isBinary(request.body())) {
+            return response;
+        }
+
+        response.close();
+        if (jsonHosts.add(host)) {
+            logger.info("Host {} does not support {}, fall back to json", host, format);
+        }
+        return chain.proceed(toJson(request));
+    }
+
+    private Request toJson(Request request) {
+        RequestBody body = request.body();
+        Request.Builder builder = request.newBuilder();
+        if (isBinary(body)) {
+            builder.method(request.method(), ((JsonRequestBody) body).toJson(jsonType))
+                    .header("Content-Type", jsonType.toString());
+        }
+        if (accept(format).equals(request.header(HEADER_ACCEPT))) {
+            builder.header(HEADER_ACCEPT, DataFormat.JSON.getMediaType());
+        }
+        return builder.build();
+    }
+
+    private static boolean isBinary(RequestBody body) {
+        return body instanceof JsonRequestBody && ((JsonRequestBody) body).isBinary();
+    }
+
+    private static String host(HttpUrl url) {
+        return url.host() + ":" + url.port();
+    }
+}
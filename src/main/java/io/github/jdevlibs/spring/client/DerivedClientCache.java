@@ -0,0 +1,63 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client;
+
+import okhttp3.OkHttpClient;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Small keyed cache of clients derived from a base client with timeout overrides.
+ * The derived clients share the connection pool, dispatcher and interceptors of the base client.
+ * Above max size the derived client is built per call and not cached.
+ * @author supot.jdev
+ * @version 1.0
+ */
+final class DerivedClientCache {
+    private static final int MAX_SIZE = 32;
+
+    private volatile OkHttpClient base;
+    private volatile ConcurrentMap<ClientTimeouts, OkHttpClient> clients = new ConcurrentHashMap<>();
+
+    /**
+     * Get derived client of timeouts
+     * @param baseClient The base client, the cache is cleared when the base client is changed
+     * @param timeouts The timeouts key
+     * @return The derived client
+     */
+    OkHttpClient get(OkHttpClient baseClient, ClientTimeouts timeouts) {
+        ConcurrentMap<ClientTimeouts, OkHttpClient> clients = this.clients;
+        if (base != baseClient) {
+            clients = new ConcurrentHashMap<>();
+            this.clients = clients;
+            base = baseClient;
+        }
+
+        OkHttpClient client = clients.get(timeouts);
+        if (client != null) {
+            return client;
+        }
+        client = timeouts.apply(baseClient.newBuilder()).build();
+        if (clients.size() < MAX_SIZE) {
+            OkHttpClient existing = clients.putIfAbsent(timeouts, client);
+            return existing != null ? existing : client;
+        }
+        return client;
+    }
+}
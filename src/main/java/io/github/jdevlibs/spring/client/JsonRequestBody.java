@@ -0,0 +1,165 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client;
+
+import io.github.jdevlibs.spring.ConfigProperties;
+import io.github.jdevlibs.spring.client.request.JsonRequest;
+import io.github.jdevlibs.spring.utils.DataFormat;
+import io.github.jdevlibs.spring.utils.JsonUtils;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ByteString;
+import okio.ForwardingSink;
+import okio.Okio;
+
+import java.io.IOException;
+
+/**
+ * <pre>
+ * Request body of json model, the model is serialized in the {@link DataFormat} of adapter.
+ * The content length is measured on first request by serializing the model into a buffer of
+ * {@link ConfigProperties#getJsonBodyBufferSize()}, the model which fits is sent from the buffer with
+ * its content length and is not serialized again on retry or redirect. The larger model is serialized
+ * directly into the request sink at write time (chunked transfer) on every write.
+ * A json string model is sent as is with known content length.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+final class JsonRequestBody extends RequestBody {
+    private static final byte[] EMPTY = new byte[0];
+    private static final long BUFFER_SIZE = ConfigProperties.getJsonBodyBufferSize();
+
+    private final Object model;
+    private final MediaType contentType;
+    private final DataFormat format;
+    private volatile boolean measured;
+    private volatile ByteString content;
+
+    private JsonRequestBody(Object model, MediaType contentType, DataFormat format) {
+        this.model = model;
+        this.contentType = contentType;
+        this.format = format;
+    }
+
+    /**
+     * Create request body of json request in data format, the json string model is sent as json.
+     * @param req The json request
+     * @param jsonType The content type of json
+     * @param format The data format of model
+     * @param contentType The content type of data format
+     * @return The request body
+     */
+    static RequestBody create(JsonRequest<?> req, MediaType jsonType, DataFormat format, MediaType contentType) {
+        if (req == null || req.getModel() == null) {
+            return RequestBody.create(EMPTY, jsonType);
+        }
+        if (req.isJsonString()) {
+            return RequestBody.create(req.getModel().toString(), jsonType);
+        }
+        return new JsonRequestBody(req.getModel(), contentType, format);
+    }
+
+    boolean isBinary() {
+        return format != DataFormat.JSON;
+    }
+
+    /**
+     * @param jsonType The content type of json
+     * @return The json body of the same model
+     */
+    RequestBody toJson(MediaType jsonType) {
+        return new JsonRequestBody(model, jsonType, DataFormat.JSON);
+    }
+
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        ByteString bytes = measure();
+        return bytes != null ? bytes.size() : -1L;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        ByteString bytes = content;
+        if (bytes != null) {
+            sink.write(bytes);
+        } else {
+            JsonUtils.write(sink.outputStream(), model, format);
+        }
+    }
+
+    /**
+     * Serialize the model into buffer once, the serialization stops when the model exceeds the buffer size.
+     * @return The serialized model, null when the model is larger than buffer size
+     */
+    private ByteString measure() throws IOException {
+        if (measured) {
+            return content;
+        }
+        synchronized (this) {
+            if (!measured) {
+                content = BUFFER_SIZE > 0 ? serialize() : null;
+                measured = true;
+            }
+            return content;
+        }
+    }
+
+    private ByteString serialize() throws IOException {
+        Buffer buffer = new Buffer();
+        LimitSink limit = new LimitSink(buffer);
+        try (BufferedSink sink = Okio.buffer(limit)) {
+            JsonUtils.write(sink.outputStream(), model, format);
+        } catch (IOException ex) {
+            if (!limit.exceeded) {
+                throw ex;
+            }
+        }
+        return limit.exceeded ? null : buffer.readByteString();
+    }
+
+    /**
+     * Buffer the written bytes up to the buffer size, the write above buffer size fails and stops the model.
+     */
+    private static final class LimitSink extends ForwardingSink {
+        private final Buffer buffer;
+        private boolean exceeded;
+
+        private LimitSink(Buffer buffer) {
+            super(buffer);
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(Buffer source, long byteCount) throws IOException {
+            if (exceeded || buffer.size() + byteCount > BUFFER_SIZE) {
+                exceeded = true;
+                source.skip(byteCount);
+                throw new IOException("Body exceeds buffer size");
+            }
+            super.write(source, byteCount);
+        }
+    }
+}
@@ -17,55 +17,134 @@
  */
 package io.github.jdevlibs.spring.client;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import io.github.jdevlibs.spring.client.batch.BatchCall;
+import io.github.jdevlibs.spring.client.batch.BatchExecution;
+import io.github.jdevlibs.spring.client.batch.BatchOptions;
+import io.github.jdevlibs.spring.client.batch.BatchResult;
+import io.github.jdevlibs.spring.client.cache.CacheBypass;
+import io.github.jdevlibs.spring.client.cache.HttpResponseCache;
+import io.github.jdevlibs.spring.client.cache.RequestCoalescer;
+import io.github.jdevlibs.spring.client.cache.ResponseCacheInterceptor;
+import io.github.jdevlibs.spring.client.cache.ResultCache;
+import io.github.jdevlibs.spring.client.compression.CompressionInterceptor;
+import io.github.jdevlibs.spring.client.compression.CompressionMode;
+import io.github.jdevlibs.spring.client.connection.ConnectionWarmer;
+import io.github.jdevlibs.spring.client.connection.TlsSessionMonitor;
+import io.github.jdevlibs.spring.client.metrics.CallTimingListener;
+import io.github.jdevlibs.spring.client.metrics.CallTimings;
+import io.github.jdevlibs.spring.client.metrics.ClientMetrics;
+import io.github.jdevlibs.spring.client.metrics.EndpointTag;
+import io.github.jdevlibs.spring.client.metrics.MetricsEventListener;
 import io.github.jdevlibs.spring.client.request.*;
+import io.github.jdevlibs.spring.client.resilience.CircuitBreakerRegistry;
+import io.github.jdevlibs.spring.client.resilience.ConcurrencyLimiterRegistry;
+import io.github.jdevlibs.spring.client.resilience.HedgePolicy;
+import io.github.jdevlibs.spring.client.resilience.RateLimiterRegistry;
+import io.github.jdevlibs.spring.client.resilience.RetryBudget;
+import io.github.jdevlibs.spring.client.resilience.RetryInterceptor;
+import io.github.jdevlibs.spring.client.resilience.RetryPolicy;
 import io.github.jdevlibs.spring.exception.ClientApiException;
+import io.github.jdevlibs.spring.utils.DataFormat;
 import io.github.jdevlibs.spring.utils.JsonUtils;
+import io.github.jdevlibs.spring.utils.VirtualThreads;
 import io.github.jdevlibs.utils.MimeTypes;
 import io.github.jdevlibs.utils.Validators;
 import okhttp3.*;
 import okhttp3.Request;
+import okio.Buffer;
+import okio.BufferedSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 
-import javax.net.ssl.SSLHandshakeException;
 import java.io.File;
-import java.net.SocketTimeoutException;
-import java.net.UnknownHostException;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author supot.jdev
  * @version 1.0
  */
 public abstract class OkHttpClientAdapter implements InitializingBean {
-    private static final String TIMEOUT_CONN    = "java.net.SocketTimeoutException: Connect timed out";
-    private static final String TIMEOUT_READ    = "java.net.SocketTimeoutException: Read timed out";
-    private static final String TIMEOUT_WRITE   = "java.net.SocketTimeoutException: timeout";
     private static final String CONTENT_TYPE_JSON   = "application/json; charset=utf-8";
     private static final String CONTENT_TYPE_FORM   = "application/x-www-form-urlencoded";
     private static final String HEADER_CONTENT_TYPE = "Content-Type";
     private static final String HEADER_ACCEPT       = "Accept";
+    private static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+    private static final String HEADER_RANGE        = "Range";
+    private static final String HEADER_IF_RANGE     = "If-Range";
+    private static final String HEADER_CONTENT_RANGE = "Content-Range";
+    private static final int HTTP_PARTIAL_CONTENT = 206;
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
 
     private static final MediaType TYPE_JSON = MediaType.parse(CONTENT_TYPE_JSON);
     
     protected Logger logger = LoggerFactory.getLogger(getClass());
 
     private OkHttpClient httpClient;
+    private volatile OkHttpClient callClient;
+    private final DerivedClientCache derivedClients = new DerivedClientCache();
+    private final DerivedClientCache callDerivedClients = new DerivedClientCache();
+    private HttpResponseCache responseCache;
+    private ResultCache resultCache;
+    private RequestCoalescer requestCoalescer;
+    private CompressionInterceptor compressionInterceptor;
+    private DataFormat dataFormat = DataFormat.JSON;
+    private MediaType formatType = TYPE_JSON;
+    private RetryPolicy retryPolicy;
+    private RetryBudget retryBudget;
+    private RetryInterceptor retryInterceptor;
+    private volatile boolean requestRetryPolicy;
+    private volatile boolean batchParallelismWarned;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private ConcurrencyLimiterRegistry concurrencyLimiterRegistry;
+    private RateLimiterRegistry rateLimiterRegistry;
+    private HedgePolicy hedgePolicy;
+    private ClientMetrics clientMetrics;
+    private Duration slowCallThreshold;
+    private ConnectionWarmer connectionWarmer;
+    private TlsSessionMonitor tlsSessionMonitor;
+    private volatile CompletableFuture<Void> warmup;
+    private boolean virtualThreads;
+    private int maxRequests = 10_000;
+    private int maxRequestsPerHost = 1_000;
+    private Dispatcher virtualDispatcher;
 
     /* ++++++++++++++++++++++++++ Initial and Validate +++++++++++++++++++++++ */
     @Override
     public final void afterPropertiesSet() throws IllegalArgumentException {
         validate();
+        warmUp();
     }
 
     protected abstract void autowiredHttpClient(OkHttpClient httpClient);
 
     public final void setHttpClient(OkHttpClient httpClient) {
         this.httpClient = httpClient;
+        this.callClient = null;
     }
 
     public OkHttpClient getHttpClient() {
@@ -73,7 +152,7 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
     }
 
     public OkHttpClient newHttpClient() {
-        return httpClient.newBuilder().build();
+        return httpClient;
     }
 
     public OkHttpClient newHttpClient(Duration connectTimeout) {
@@ -84,18 +163,471 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
         return newHttpClient(connectTimeout, readTimeout, null);
     }
 
+    /**
+     * Get client with timeout overrides, the client is cached per timeouts and shares the connection pool
+     * and dispatcher of the http client. For timeout of a single call, use the timeouts of
+     * {@link io.github.jdevlibs.spring.client.request.Request}.
+     * @param connectTimeout The connect timeout, null for default
+     * @param readTimeout The read timeout, null for default
+     * @param writeTimeout The write timeout, null for default
+     * @return The http client
+     */
     public OkHttpClient newHttpClient(Duration connectTimeout, Duration readTimeout, Duration writeTimeout) {
-        OkHttpClient.Builder clientBuilder = httpClient.newBuilder();
-        if (connectTimeout != null) {
-            clientBuilder.connectTimeout(connectTimeout);
+        ClientTimeouts timeouts = new ClientTimeouts(null, connectTimeout, readTimeout, writeTimeout);
+        if (timeouts.clientKey() == null) {
+            return httpClient;
+        }
+        return derivedClients.get(httpClient, timeouts);
+    }
+
+    /**
+     * <pre>
+     * Enable HTTP response cache (RFC 7234) of GET requests, set null for disable.
+     * The cache is applied as an interceptor of a derived client which shares the connection pool
+     * and dispatcher of the original http client.
+     * </pre>
+     * @param responseCache The response cache
+     */
+    public void setResponseCache(HttpResponseCache responseCache) {
+        this.responseCache = responseCache;
+        this.callClient = null;
+    }
+
+    public HttpResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * <pre>
+     * Enable memoization of decoded results of {@link #get(String, GetRequest, Class)},
+     * only endpoints registered in the cache are memoized. Set null for disable.
+     * </pre>
+     * @param resultCache The result cache
+     */
+    public void setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * <pre>
+     * Enable single-flight coalescing of identical in-flight idempotent requests (GET, DELETE without body),
+     * set null for disable. The streamed results and downloads are not coalesced.
+     * </pre>
+     * @param requestCoalescer The request coalescer
+     */
+    public void setRequestCoalescer(RequestCoalescer requestCoalescer) {
+        this.requestCoalescer = requestCoalescer;
+        this.callClient = null;
+    }
+
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    /**
+     * <pre>
+     * The wire format of request and response models, default is JSON. The binary format (Smile, CBOR, MessagePack)
+     * is sent with Content-Type and Accept of format, json is accepted as fallback. The response is decoded by
+     * its Content-Type, and when the server rejects the format with 415 the call is sent again as json
+     * and the host is remembered for json only.
+     * </pre>
+     * @param dataFormat The data format
+     * @throws IllegalArgumentException If the library of format is not in classpath
+     */
+    public void setDataFormat(DataFormat dataFormat) {
+        DataFormat format = dataFormat != null ? dataFormat : DataFormat.JSON;
+        if (!format.isAvailable()) {
+            throw new IllegalArgumentException("Data format " + format + " requires " + format.getArtifact());
+        }
+        this.dataFormat = format;
+        this.formatType = format == DataFormat.JSON ? TYPE_JSON : MediaType.parse(format.getMediaType());
+        this.callClient = null;
+    }
+
+    public DataFormat getDataFormat() {
+        return dataFormat;
+    }
+
+    /**
+     * <pre>
+     * Enable compression of request bodies above threshold and negotiated decoding of responses,
+     * set null for disable. The request overrides by {@link io.github.jdevlibs.spring.client.request.Request#setCompression}.
+     * </pre>
+     * @param compressionInterceptor The compression interceptor
+     */
+    public void setCompressionInterceptor(CompressionInterceptor compressionInterceptor) {
+        this.compressionInterceptor = compressionInterceptor;
+        this.callClient = null;
+    }
+
+    public CompressionInterceptor getCompressionInterceptor() {
+        return compressionInterceptor;
+    }
+
+    /**
+     * <pre>
+     * Default retry policy of all calls, the policy of request ({@link io.github.jdevlibs.spring.client.request.Request#setRetryPolicy})
+     * overrides this policy. Set null for no retry by default.
+     * The default retryable errors are the connect timeout, read timeout and connection reset
+     * ({@link ClientApiException#isConnectionReset()}), other I/O errors are not retried.
+     *
+     * The backoff between attempts waits on the calling thread, for asynchronous calls it holds
+     * a thread and a running slot (maxRequests, maxRequestsPerHost) of OkHttp dispatcher.
+     * Size the dispatcher for the retried calls, or enable {@link #setVirtualThreads(boolean)}.
+     * </pre>
+     * @param retryPolicy The retry policy
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        this.callClient = null;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Limit retries to a ratio of traffic, set null for unlimited.
+     * @param retryBudget The retry budget
+     */
+    public void setRetryBudget(RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+        this.callClient = null;
+    }
+
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    /**
+     * The number of retry attempts since the retry configuration changed.
+     * @return The retry count
+     */
+    public long getRetryCount() {
+        RetryInterceptor interceptor = retryInterceptor;
+        return interceptor != null ? interceptor.getRetryCount() : 0;
+    }
+
+    /**
+     * <pre>
+     * Enable per-host (or per-endpoint) circuit breaker, while the circuit is open the call fails fast
+     * with {@link ClientApiException.ClientApiErrorCodes#CODE_API_CIRCUIT_OPEN}. Set null for disable.
+     * </pre>
+     * @param circuitBreakerRegistry The circuit breaker registry
+     */
+    public void setCircuitBreakerRegistry(CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.callClient = null;
+    }
+
+    public CircuitBreakerRegistry getCircuitBreakerRegistry() {
+        return circuitBreakerRegistry;
+    }
+
+    /**
+     * <pre>
+     * Enable per-host adaptive concurrency limit, when the limit and wait queue are full the call fails
+     * with {@link ClientApiException.ClientApiErrorCodes#CODE_API_CONCURRENCY_LIMIT}. Set null for disable.
+     * The wait of async calls blocks a dispatcher thread. The limit is applied before the circuit breaker,
+     * the wait in queue is not recorded as a slow call and does not hold a half-open probe call.
+     * </pre>
+     * @param concurrencyLimiterRegistry The concurrency limiter registry
+     */
+    public void setConcurrencyLimiterRegistry(ConcurrencyLimiterRegistry concurrencyLimiterRegistry) {
+        this.concurrencyLimiterRegistry = concurrencyLimiterRegistry;
+        this.callClient = null;
+    }
+
+    public ConcurrencyLimiterRegistry getConcurrencyLimiterRegistry() {
+        return concurrencyLimiterRegistry;
+    }
+
+    /**
+     * <pre>
+     * Enable client-side rate limit per host or URL pattern, when the permit is not available within
+     * max wait the call fails with {@link ClientApiException.ClientApiErrorCodes#CODE_API_RATE_LIMITED}.
+     * Set null for disable. The rate limit is applied before the circuit breaker, the wait of permit
+     * is not recorded as a slow call and does not hold a half-open probe call.
+     * </pre>
+     * @param rateLimiterRegistry The rate limiter registry
+     */
+    public void setRateLimiterRegistry(RateLimiterRegistry rateLimiterRegistry) {
+        this.rateLimiterRegistry = rateLimiterRegistry;
+        this.callClient = null;
+    }
+
+    public RateLimiterRegistry getRateLimiterRegistry() {
+        return rateLimiterRegistry;
+    }
+
+    /**
+     * <pre>
+     * Enable hedged GET requests, when a GET has not completed after the hedge delay a second identical
+     * request is sent and the first response wins. Set null for disable.
+     * The blocking GET executes the first request on the caller thread and only the hedge request is enqueued,
+     * the async GET enqueues both. The enqueued calls are limited by the dispatcher of http client
+     * (OkHttp default 5 per host), raise {@link Dispatcher#setMaxRequestsPerHost(int)} for hedging of async calls.
+     * The hedge request is not coalesced or served from the response cache.
+     * </pre>
+     * @param hedgePolicy The hedge policy
+     */
+    public void setHedgePolicy(HedgePolicy hedgePolicy) {
+        this.hedgePolicy = hedgePolicy;
+    }
+
+    public HedgePolicy getHedgePolicy() {
+        return hedgePolicy;
+    }
+
+    /**
+     * <pre>
+     * Enable metrics of every call: count, errors by error code, latency and bytes sent/received per endpoint.
+     * Use {@link io.github.jdevlibs.spring.client.metrics.ClientMetricsRegistry} or a custom implementation
+     * for export to other registry. Set null for disable.
+     * </pre>
+     * @param clientMetrics The client metrics
+     */
+    public void setClientMetrics(ClientMetrics clientMetrics) {
+        this.clientMetrics = clientMetrics;
+        this.callClient = null;
+    }
+
+    public ClientMetrics getClientMetrics() {
+        return clientMetrics;
+    }
+
+    /**
+     * <pre>
+     * Capture {@link CallTimings} of every call, the call slower than threshold is logged (WARN) with
+     * the timing breakdown. Set null for disable, the timings of a single call can be captured by
+     * {@link io.github.jdevlibs.spring.client.request.Request#setCaptureTimings(boolean)}.
+     * The timings of successful and failed calls are delivered to
+     * {@link io.github.jdevlibs.spring.client.request.Request#setTimingsCallback}.
+     * </pre>
+     * @param slowCallThreshold The threshold of slow call
+     */
+    public void setSlowCallThreshold(Duration slowCallThreshold) {
+        this.slowCallThreshold = slowCallThreshold;
+    }
+
+    public Duration getSlowCallThreshold() {
+        return slowCallThreshold;
+    }
+
+    /**
+     * <pre>
+     * Set pre-warm of connection pool, the warm-up starts in {@link #afterPropertiesSet()} without blocking
+     * the startup. Use {@link #isWarm()} or {@link #awaitWarm(Duration)} for readiness probe.
+     * </pre>
+     * @param connectionWarmer The connection warmer
+     */
+    public void setConnectionWarmer(ConnectionWarmer connectionWarmer) {
+        this.connectionWarmer = connectionWarmer;
+    }
+
+    public ConnectionWarmer getConnectionWarmer() {
+        return connectionWarmer;
+    }
+
+    /**
+     * Configure and observe TLS session resumption, set null for disable.
+     * @param tlsSessionMonitor The TLS session monitor
+     */
+    public void setTlsSessionMonitor(TlsSessionMonitor tlsSessionMonitor) {
+        this.tlsSessionMonitor = tlsSessionMonitor;
+        this.callClient = null;
+    }
+
+    public TlsSessionMonitor getTlsSessionMonitor() {
+        return tlsSessionMonitor;
+    }
+
+    /**
+     * <pre>
+     * Run async calls (async methods, executeAll, hedging) on virtual threads instead of the platform thread
+     * pool of OkHttp dispatcher, with max requests 10,000 and max requests per host 1,000.
+     * Requires Java 21+ at runtime, on older runtime the setting is ignored and the default dispatcher
+     * of OkHttp client (and its limits) is used.
+     * The blocking methods run on the caller thread and can be called from virtual threads directly.
+     * </pre>
+     * @param virtualThreads Enable virtual thread execution mode
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        this.callClient = null;
+    }
+
+    /**
+     * Enable virtual thread execution mode with limits of in-flight async calls,
+     * the limits are applied only when the runtime supports virtual threads.
+     * @param maxRequests The maximum in-flight async calls
+     * @param maxRequestsPerHost The maximum in-flight async calls per host
+     */
+    public void setVirtualThreads(int maxRequests, int maxRequestsPerHost) {
+        this.maxRequests = maxRequests;
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        Dispatcher dispatcher = virtualDispatcher;
+        if (dispatcher != null) {
+            dispatcher.setMaxRequests(maxRequests);
+            dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        }
+        setVirtualThreads(true);
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads && VirtualThreads.isSupported();
+    }
+
+    /**
+     * Start pre-warm of connection pool by {@link ConnectionWarmer}, called by {@link #afterPropertiesSet()}.
+     * @return The future completed when the warm-up is done
+     */
+    public CompletableFuture<Void> warmUp() {
+        if (connectionWarmer == null) {
+            warmup = CompletableFuture.completedFuture(null);
+        } else {
+            warmup = connectionWarmer.warm(warmClient());
+        }
+        return warmup;
+    }
+
+    /**
+     * @return true if the warm-up is done and every base URL has a warmed connection, or no warm-up is configured
+     */
+    public boolean isWarm() {
+        CompletableFuture<Void> future = warmup;
+        if (future == null) {
+            return connectionWarmer == null;
+        }
+        return future.isDone() && (connectionWarmer == null || connectionWarmer.isWarm());
+    }
+
+    /**
+     * Wait until the warm-up is done
+     * @param timeout The maximum wait time
+     * @return true if the warm-up is done and every base URL has a warmed connection
+     */
+    public boolean awaitWarm(Duration timeout) {
+        CompletableFuture<Void> future = warmup;
+        if (future == null) {
+            return connectionWarmer == null;
+        }
+        try {
+            future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception ex) {
+            logger.debug("Wait for warm-up error", ex);
+        }
+        return isWarm();
+    }
+
+    /**
+     * The client of warm-up calls, shares the connection pool of http client with only the TLS session listener,
+     * so the warm-up calls are not recorded as traffic by metrics and timings.
+     * @return The http client
+     */
+    private OkHttpClient warmClient() {
+        if (tlsSessionMonitor == null) {
+            return httpClient;
+        }
+        return httpClient.newBuilder()
+                .eventListenerFactory(tlsSessionMonitor.factory(httpClient.eventListenerFactory()))
+                .build();
+    }
+
+    private Call newCall(Request request) {
+        ClientTimeouts timeouts = request.tag(ClientTimeouts.class);
+        if (timeouts == null) {
+            return callClient().newCall(request);
+        }
+
+        OkHttpClient client = callClient();
+        if (timeouts.clientKey() != null) {
+            client = callDerivedClients.get(client, timeouts.clientKey());
+        }
+        Call call = client.newCall(request);
+        if (timeouts.getCall() != null) {
+            call.timeout().timeout(timeouts.getCall().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return call;
+    }
+
+    private OkHttpClient callClient() {
+        OkHttpClient client = callClient;
+        if (client == null) {
+            client = buildCallClient();
+            callClient = client;
+        }
+        return client;
+    }
+
+    private OkHttpClient buildCallClient() {
+        OkHttpClient.Builder builder = httpClient.newBuilder();
+        builder.interceptors().add(0, CallTimingListener.interceptor());
+        if (isVirtualThreads()) {
+            builder.dispatcher(virtualDispatcher());
         }
-        if (readTimeout != null) {
-            clientBuilder.readTimeout(readTimeout);
+        ResponseCacheInterceptor cacheInterceptor = null;
+        if (responseCache != null) {
+            cacheInterceptor = new ResponseCacheInterceptor(responseCache);
+            builder.addInterceptor(cacheInterceptor);
         }
-        if (writeTimeout != null) {
-            clientBuilder.writeTimeout(writeTimeout);
+        if (requestCoalescer != null) {
+            builder.addInterceptor(requestCoalescer);
         }
-        return clientBuilder.build();
+        if (dataFormat != DataFormat.JSON) {
+            builder.addInterceptor(new DataFormatFallback(dataFormat, TYPE_JSON));
+        }
+        if (compressionInterceptor != null) {
+            builder.addInterceptor(compressionInterceptor);
+        }
+        if (retryPolicy != null || retryBudget != null || requestRetryPolicy) {
+            retryInterceptor = new RetryInterceptor(retryPolicy, retryBudget);
+            builder.addInterceptor(retryInterceptor);
+        } else {
+            retryInterceptor = null;
+        }
+        // the waits of rate limit and concurrency limit are outside the circuit breaker, they are not latency of host
+        if (rateLimiterRegistry != null) {
+            builder.addInterceptor(rateLimiterRegistry);
+        }
+        if (concurrencyLimiterRegistry != null) {
+            builder.addInterceptor(concurrencyLimiterRegistry);
+        }
+        if (circuitBreakerRegistry != null) {
+            builder.addInterceptor(circuitBreakerRegistry);
+        }
+        EventListener.Factory listenerFactory = CallTimingListener.factory(httpClient.eventListenerFactory());
+        if (tlsSessionMonitor != null) {
+            listenerFactory = tlsSessionMonitor.factory(listenerFactory);
+        }
+        if (clientMetrics != null) {
+            listenerFactory = MetricsEventListener.factory(clientMetrics, listenerFactory);
+        }
+        builder.eventListenerFactory(listenerFactory);
+
+        OkHttpClient client = builder.build();
+        if (cacheInterceptor != null) {
+            cacheInterceptor.setClient(client);
+        }
+        return client;
+    }
+
+    private Dispatcher virtualDispatcher() {
+        Dispatcher dispatcher = virtualDispatcher;
+        if (dispatcher == null) {
+            dispatcher = new Dispatcher(VirtualThreads.newExecutor("OkHttp Dispatcher"));
+            dispatcher.setMaxRequests(maxRequests);
+            dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+            virtualDispatcher = dispatcher;
+        }
+        return dispatcher;
     }
 
     private void validate() {
@@ -131,12 +663,7 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
      */
     public <T> T post(String url, JsonRequest<?> request, Class<T> clazz) {
         try {
-            byte[] contents = jsonAsByte(url, request, HttpMethod.POST);
-            if (Validators.isEmpty(contents) || clazz == null) {
-                return null;
-            }
-
-            return JsonUtils.model(contents, clazz);
+            return execute(newJsonRequest(url, request, HttpMethod.POST), toModel(clazz));
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -171,12 +698,7 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
      */
     public <T> T put(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
         try {
-            byte[] contents = jsonAsByte(url, jsonRequest, HttpMethod.PUT);
-            if (Validators.isEmpty(contents) || clazz == null) {
-                return null;
-            }
-
-            return JsonUtils.model(contents, clazz);
+            return execute(newJsonRequest(url, jsonRequest, HttpMethod.PUT), toModel(clazz));
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -194,11 +716,7 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
      */
     public <T> List<T> postResultAsList(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
         try {
-            byte[] contents = jsonAsByte(url, jsonRequest, HttpMethod.POST);
-            if (Validators.isEmpty(contents) || clazz == null) {
-                return Collections.emptyList();
-            }
-            return JsonUtils.models(contents, clazz);
+            return execute(newJsonRequest(url, jsonRequest, HttpMethod.POST), toModels(clazz));
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -216,11 +734,7 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
      */
     public <T> List<T> putResultAsList(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
         try {
-            byte[] contents = jsonAsByte(url, jsonRequest, HttpMethod.PUT);
-            if (Validators.isEmpty(contents) || clazz == null) {
-                return Collections.emptyList();
-            }
-            return JsonUtils.models(contents, clazz);
+            return execute(newJsonRequest(url, jsonRequest, HttpMethod.PUT), toModels(clazz));
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -266,12 +780,7 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
      */
     public <T> T postForm(String url, FormRequest req, Class<T> clazz) {
         try {
-            byte[] contents = postFormAsByte(url, req);
-            if (Validators.isEmpty(contents) || clazz == null) {
-                return null;
-            }
-
-            return JsonUtils.model(contents, clazz);
+            return execute(newFormRequest(url, req), toModel(clazz));
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -300,11 +809,7 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
      */
     public <T> List<T> postFormResultAsList(String url, FormRequest req, Class<T> clazz) {
         try {
-            byte[] contents = postFormAsByte(url, req);
-            if (Validators.isEmpty(contents) || clazz == null) {
-                return Collections.emptyList();
-            }
-            return JsonUtils.models(contents, clazz);
+            return execute(newFormRequest(url, req), toModels(clazz));
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -319,19 +824,7 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
      */
     public void postMultiPart(String url, MultipartRequest req) {
         try {
-            logInfo(url, req);
-            if (Validators.isNullOne(url, req)) {
-                throw new ClientApiException(ClientApiException.ClientApiErrorCodes.CODE_API_ERROR, "Invalid required parameter");
-            }
-
-            RequestBody body = multipartRequestBody(req);
-            Request request = formMultipart(url, body, req);
-            Call call = httpClient.newCall(request);
-            try (Response resp = call.execute()) {
-                if (!resp.isSuccessful()) {
-                    throw throwException(resp);
-                }
-            }
+            execute(newMultipartRequest(url, req), toModel(null));
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -349,21 +842,11 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
      */
     public <T> T postMultiPart(String url, MultipartRequest multipartRequest, Class<T> clazz) {
         try {
-            logInfo(url, multipartRequest);
-            if (Validators.isNullOne(url, multipartRequest, clazz)) {
+            if (clazz == null) {
                 throw new ClientApiException(ClientApiException.ClientApiErrorCodes.CODE_API_ERROR, "Invalid required parameter");
             }
 
-            RequestBody body = multipartRequestBody(multipartRequest);
-            Request request = formMultipart(url, body, multipartRequest);
-            Call call = httpClient.newCall(request);
-            try (Response resp = call.execute()) {
-                if (resp.isSuccessful() && resp.body() != null) {
-                    return JsonUtils.model(resp.body().bytes(), clazz);
-                } else {
-                    throw throwException(resp);
-                }
-            }
+            return execute(newMultipartRequest(url, multipartRequest), toModel(clazz));
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -391,13 +874,19 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
      * @param <T>   The type of response class
      */
     public <T> T get(String url, GetRequest getRequest, Class<T> clazz) {
+        if (resultCache != null && clazz != null && resultCache.isCacheable(url, getRequest)) {
+            return resultCache.get(url, getRequest, clazz, () -> fetch(url, getRequest, clazz),
+                    () -> getAsync(url, getRequest, clazz));
+        }
+        return fetch(url, getRequest, clazz);
+    }
+
+    private <T> T fetch(String url, GetRequest getRequest, Class<T> clazz) {
         try {
-            byte[] contents = getAsByte(url, getRequest);
-            if (Validators.isEmpty(contents) || clazz == null) {
-                return null;
+            if (hedgePolicy != null) {
+                return hedgeExecute(newGetRequest(url, getRequest), toModel(clazz));
             }
-
-            return JsonUtils.model(contents, clazz);
+            return execute(newGetRequest(url, getRequest), toModel(clazz));
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -426,12 +915,10 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
      */
     public <T> List<T> getResultAsList(String url, GetRequest getRequest, Class<T> clazz) {
         try {
-            byte[] contents = getAsByte(url, getRequest);
-            if (Validators.isEmpty(contents) || clazz == null) {
-                return Collections.emptyList();
+            if (hedgePolicy != null) {
+                return hedgeExecute(newGetRequest(url, getRequest), toModels(clazz));
             }
-
-            return JsonUtils.models(contents, clazz);
+            return execute(newGetRequest(url, getRequest), toModels(clazz));
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -477,12 +964,7 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
      */
     public <T> T delete(String url, DeleteRequest deleteRequest, Class<T> clazz) {
         try {
-            byte[] contents = deleteAsByte(url, deleteRequest);
-            if (Validators.isEmpty(contents) || clazz == null) {
-                return null;
-            }
-
-            return JsonUtils.model(contents, clazz);
+            return execute(newDeleteRequest(url, deleteRequest), toModel(clazz));
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -500,12 +982,7 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
      */
     public <T> List<T> deleteResultAsList(String url, DeleteRequest deleteRequest, Class<T> clazz) {
         try {
-            byte[] contents = deleteAsByte(url, deleteRequest);
-            if (Validators.isEmpty(contents) || clazz == null) {
-                return Collections.emptyList();
-            }
-
-            return JsonUtils.models(contents, clazz);
+            return execute(newDeleteRequest(url, deleteRequest), toModels(clazz));
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -532,12 +1009,7 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
      */
     public <T> T delete(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
         try {
-            byte[] contents = jsonAsByte(url, jsonRequest, HttpMethod.DELETE);
-            if (Validators.isEmpty(contents) || clazz == null) {
-                return null;
-            }
-
-            return JsonUtils.model(contents, clazz);
+            return execute(newJsonRequest(url, jsonRequest, HttpMethod.DELETE), toModel(clazz));
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -555,12 +1027,7 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
      */
     public <T> List<T> deleteResultAsList(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
         try {
-            byte[] contents = jsonAsByte(url, jsonRequest, HttpMethod.DELETE);
-            if (Validators.isEmpty(contents) || clazz == null) {
-                return null;
-            }
-
-            return JsonUtils.models(contents, clazz);
+            return execute(newJsonRequest(url, jsonRequest, HttpMethod.DELETE), toModelsOrNull(clazz));
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -568,38 +1035,39 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
         }
     }
 
-    private byte[] jsonAsByte(String url, JsonRequest<?> req, HttpMethod httpMethod) {
-        try {
-            String json = null;
-            if (req != null && req.getModel() != null) {
-                if (req.isJsonString()) {
-                    json = req.getModel().toString();
-                } else {
-                    json = JsonUtils.json(req.getModel());
-                }
-            }
-            logInfo(url, json);
-
-            Request.Builder builder = jsonRequest(url, req);
-            Request request;
-            if (HttpMethod.PUT == httpMethod) {
-                request = builder.put(jsonRequestBody(json)).build();
-            } else if (HttpMethod.PATCH == httpMethod) {
-                request = builder.patch(jsonRequestBody(json)).build();
-            } else if (HttpMethod.DELETE == httpMethod) {
-                request = builder.delete(jsonRequestBody(json)).build();
-            } else {
-                request = builder.post(jsonRequestBody(json)).build();
-            }
+    /* ++++++++++++++++++++++++++ Streaming API +++++++++++++++++++++++++++++ */
+    /**
+     * <pre>
+     * Call service API with http (GET) method return result as a lazy stream.
+     * The array elements are parsed while consuming the stream, the http response is released when the stream
+     * is fully consumed. Close the stream (try-with-resources) when it may not be consumed to the end,
+     * e.g. findFirst or limit.
+     * </pre>
+     * @param url   Service API URL
+     * @param clazz The response element class
+     * @return The stream of elements
+     * @param <T>   The type of response class
+     */
+    public <T> Stream<T> getResultAsStream(String url, Class<T> clazz) {
+        return getResultAsStream(url, new GetRequest(), clazz);
+    }
 
-            Call call = httpClient.newCall(request);
-            try (Response resp = call.execute()) {
-                if (resp.isSuccessful()) {
-                    return resp.body() != null ? resp.body().bytes() : new byte[]{};
-                } else {
-                    throw throwException(resp);
-                }
-            }
+    /**
+     * <pre>
+     * Call service API with http (GET) method return result as a lazy stream.
+     * The array elements are parsed while consuming the stream, the http response is released when the stream
+     * is fully consumed. Close the stream (try-with-resources) when it may not be consumed to the end,
+     * e.g. findFirst or limit.
+     * </pre>
+     * @param url   Service API URL
+     * @param getRequest   The Form request object includes [Parameters, headers]
+     * @param clazz The response element class
+     * @return The stream of elements
+     * @param <T>   The type of response class
+     */
+    public <T> Stream<T> getResultAsStream(String url, GetRequest getRequest, Class<T> clazz) {
+        try {
+            return executeAsStream(newGetRequest(url, getRequest), clazz);
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -607,25 +1075,21 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
         }
     }
 
-    private byte[] postFormAsByte(String url, FormRequest req) {
+    /**
+     * <pre>
+     * Call service API with POST by json body return result as a lazy stream.
+     * The http response is released when the stream is fully consumed, close the stream (try-with-resources)
+     * when it may not be consumed to the end.
+     * </pre>
+     * @param url Service API URL
+     * @param jsonRequest The request json model
+     * @param clazz The response element class
+     * @return The stream of elements
+     * @param <T> The type of response class
+     */
+    public <T> Stream<T> postResultAsStream(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
         try {
-            FormBody.Builder builder = new FormBody.Builder();
-            if (Validators.isNotNull(req) && Validators.isNotEmpty(req.getFields())) {
-                req.getFields().forEach(builder::add);
-            }
-
-            logInfo(url, req);
-
-            RequestBody body = builder.build();
-            Request request = formRequest(url, body, req);
-            Call call = httpClient.newCall(request);
-            try (Response resp = call.execute()) {
-                if (resp.isSuccessful()) {
-                    return resp.body() != null ? resp.body().bytes() : new byte[]{};
-                } else {
-                    throw throwException(resp);
-                }
-            }
+            return executeAsStream(newJsonRequest(url, jsonRequest, HttpMethod.POST), clazz);
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -633,26 +1097,21 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
         }
     }
 
-    private byte[] getAsByte(String url, GetRequest req) {
+    /**
+     * <pre>
+     * Call service API with PUT by json body return result as a lazy stream.
+     * The http response is released when the stream is fully consumed, close the stream (try-with-resources)
+     * when it may not be consumed to the end.
+     * </pre>
+     * @param url Service API URL
+     * @param jsonRequest The request json model
+     * @param clazz The response element class
+     * @return The stream of elements
+     * @param <T> The type of response class
+     */
+    public <T> Stream<T> putResultAsStream(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
         try {
-            HttpUrl.Builder builder = Objects.requireNonNull(HttpUrl.parse(url)).newBuilder();
-            //Query Parameters
-            if (Validators.isNotNull(req) && Validators.isNotEmpty(req.getParameters())) {
-                req.getParameters().forEach(builder::addEncodedQueryParameter);
-                url = builder.build().toString();
-            }
-
-            logInfo(url, req);
-
-            Request request = getRequest(url, req);
-            Call call = httpClient.newCall(request);
-            try (Response resp = call.execute()) {
-                if (resp.isSuccessful()) {
-                    return resp.body() != null ? resp.body().bytes() : new byte[]{};
-                } else {
-                    throw throwException(resp);
-                }
-            }
+            return executeAsStream(newJsonRequest(url, jsonRequest, HttpMethod.PUT), clazz);
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -660,26 +1119,43 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
         }
     }
 
-    private byte[] deleteAsByte(String url, DeleteRequest req) {
+    /**
+     * <pre>
+     * Call service API with POST by form return result as a lazy stream.
+     * The http response is released when the stream is fully consumed, close the stream (try-with-resources)
+     * when it may not be consumed to the end.
+     * </pre>
+     * @param url   Service API URL
+     * @param req   The Form request object includes [fields, headers]
+     * @param clazz The response element class
+     * @return The stream of elements
+     * @param <T>   The type of response class
+     */
+    public <T> Stream<T> postFormResultAsStream(String url, FormRequest req, Class<T> clazz) {
         try {
-            HttpUrl.Builder builder = Objects.requireNonNull(HttpUrl.parse(url)).newBuilder();
-            //Query Parameters
-            if (Validators.isNotNull(req) && Validators.isNotEmpty(req.getParameters())) {
-                req.getParameters().forEach(builder::addEncodedQueryParameter);
-                url = builder.build().toString();
-            }
-
-            logInfo(url, req);
-
-            Request request = deleteRequest(url, req);
-            Call call = httpClient.newCall(request);
-            try (Response resp = call.execute()) {
-                if (resp.isSuccessful()) {
-                    return resp.body() != null ? resp.body().bytes() : new byte[]{};
-                } else {
-                    throw throwException(resp);
-                }
-            }
+            return executeAsStream(newFormRequest(url, req), clazz);
+        } catch (ClientApiException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw throwException(ex);
+        }
+    }
+
+    /**
+     * <pre>
+     * Call service API with [http:DELETE] return result as a lazy stream.
+     * The http response is released when the stream is fully consumed, close the stream (try-with-resources)
+     * when it may not be consumed to the end.
+     * </pre>
+     * @param url Service API URL
+     * @param deleteRequest The request object includes [parameter, headers]
+     * @param clazz The response element class
+     * @return The stream of elements
+     * @param <T> The type of response class
+     */
+    public <T> Stream<T> deleteResultAsStream(String url, DeleteRequest deleteRequest, Class<T> clazz) {
+        try {
+            return executeAsStream(newDeleteRequest(url, deleteRequest), clazz);
         } catch (ClientApiException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -687,6 +1163,1035 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
         }
     }
 
+    /* ++++++++++++++++++++++++++ Download API ++++++++++++++++++++++++++ */
+    /**
+     * <pre>
+     * Download the response body of http (GET) method to file, the body is streamed to the file channel
+     * and never held in heap. The content is written to [target].part and moved to target when complete.
+     *
+     * When the download is interrupted, the next call resumes from the bytes on disk by Range/If-Range
+     * with the ETag or Last-Modified of response. The server which ignores the range or has changed
+     * content sends the whole body and the download starts over.
+     * The length is verified by Content-Length/Content-Range, {@link DownloadRequest} adds the expected
+     * length and checksum.
+     * </pre>
+     * @param url   Service API URL
+     * @param getRequest   The request object includes [Parameters, headers], or {@link DownloadRequest}
+     * @param target The target file
+     * @return The size of downloaded file
+     */
+    public long downloadTo(String url, GetRequest getRequest, Path target) {
+        try {
+            return download(url, getRequest, target);
+        } catch (ClientApiException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw throwException(ex);
+        }
+    }
+
+    /* ++++++++++++++++++++++++++ Asynchronous API ++++++++++++++++++++++++++ */
+    /**
+     * Call service API with POST by json body without blocking the caller thread.
+     * @param url Service API URL
+     * @param jsonRequest The request json model
+     * @return The future of call, cancel this future will cancel the http call
+     */
+    public CompletableFuture<Void> postAsync(String url, JsonRequest<?> jsonRequest) {
+        return this.<Void>postAsync(url, jsonRequest, null);
+    }
+
+    /**
+     * Call service API with POST by json body without blocking the caller thread.
+     * @param url Service API URL
+     * @param jsonRequest The request json model
+     * @param clazz The response model class
+     * @return The future of result, cancel this future will cancel the http call
+     * @param <T> The type of response class
+     */
+    public <T> CompletableFuture<T> postAsync(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
+        return enqueue(() -> newJsonRequest(url, jsonRequest, HttpMethod.POST), toModel(clazz));
+    }
+
+    /**
+     * Call service API with POST by json body return result as collections without blocking the caller thread.
+     * @param url Service API URL
+     * @param jsonRequest The request json model
+     * @param clazz The response model class
+     * @return The future of result, cancel this future will cancel the http call
+     * @param <T> The type of response class
+     */
+    public <T> CompletableFuture<List<T>> postResultAsListAsync(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
+        return enqueue(() -> newJsonRequest(url, jsonRequest, HttpMethod.POST), toModels(clazz));
+    }
+
+    /**
+     * Call service API with PUT by json body without blocking the caller thread.
+     * @param url Service API URL
+     * @param jsonRequest The request json model
+     * @return The future of call, cancel this future will cancel the http call
+     */
+    public CompletableFuture<Void> putAsync(String url, JsonRequest<?> jsonRequest) {
+        return this.<Void>putAsync(url, jsonRequest, null);
+    }
+
+    /**
+     * Call service API with PUT by json body without blocking the caller thread.
+     * @param url Service API URL
+     * @param jsonRequest The request json model
+     * @param clazz The response model class
+     * @return The future of result, cancel this future will cancel the http call
+     * @param <T> The type of response class
+     */
+    public <T> CompletableFuture<T> putAsync(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
+        return enqueue(() -> newJsonRequest(url, jsonRequest, HttpMethod.PUT), toModel(clazz));
+    }
+
+    /**
+     * Call service API with PUT by json body return result as collections without blocking the caller thread.
+     * @param url Service API URL
+     * @param jsonRequest The request json model
+     * @param clazz The response model class
+     * @return The future of result, cancel this future will cancel the http call
+     * @param <T> The type of response class
+     */
+    public <T> CompletableFuture<List<T>> putResultAsListAsync(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
+        return enqueue(() -> newJsonRequest(url, jsonRequest, HttpMethod.PUT), toModels(clazz));
+    }
+
+    /**
+     * Call service API with POST by form without blocking the caller thread.
+     * @param url   Service API URL
+     * @param req   The Form request object includes [fields, headers]
+     * @param clazz The response model class
+     * @return The future of result, cancel this future will cancel the http call
+     * @param <T>   The type of response class
+     */
+    public <T> CompletableFuture<T> postFormAsync(String url, FormRequest req, Class<T> clazz) {
+        return enqueue(() -> newFormRequest(url, req), toModel(clazz));
+    }
+
+    /**
+     * Call service API with POST by a form return result as collections without blocking the caller thread.
+     * @param url   Service API URL
+     * @param req   The Form request object includes [fields, headers]
+     * @param clazz The response model class
+     * @return The future of result, cancel this future will cancel the http call
+     * @param <T>   The type of response class
+     */
+    public <T> CompletableFuture<List<T>> postFormResultAsListAsync(String url, FormRequest req, Class<T> clazz) {
+        return enqueue(() -> newFormRequest(url, req), toModels(clazz));
+    }
+
+    /**
+     * Call service API with POST by MultiPart (file upload) without blocking the caller thread.
+     * @param url   Service API URL
+     * @param req   The Form request object includes [fields, headers, files]
+     * @param clazz The response model class
+     * @return The future of result, cancel this future will cancel the http call
+     * @param <T>   The type of response class
+     */
+    public <T> CompletableFuture<T> postMultiPartAsync(String url, MultipartRequest req, Class<T> clazz) {
+        return enqueue(() -> newMultipartRequest(url, req), toModel(clazz));
+    }
+
+    /**
+     * Call service API with http (GET) method without blocking the caller thread.
+     * @param url   Service API URL
+     * @param clazz The response model class
+     * @return The future of result, cancel this future will cancel the http call
+     * @param <T>   The type of response class
+     */
+    public <T> CompletableFuture<T> getAsync(String url, Class<T> clazz) {
+        return getAsync(url, new GetRequest(), clazz);
+    }
+
+    /**
+     * Call service API with http (GET) method without blocking the caller thread.
+     * @param url   Service API URL
+     * @param getRequest   The Form request object includes [Parameters, headers]
+     * @param clazz The response model class
+     * @return The future of result, cancel this future will cancel the http call
+     * @param <T>   The type of response class
+     */
+    public <T> CompletableFuture<T> getAsync(String url, GetRequest getRequest, Class<T> clazz) {
+        if (hedgePolicy != null) {
+            return hedge(() -> newGetRequest(url, getRequest), toModel(clazz));
+        }
+        return enqueue(() -> newGetRequest(url, getRequest), toModel(clazz));
+    }
+
+    /**
+     * Call service API with http (GET) method return result as collections without blocking the caller thread.
+     * @param url   Service API URL
+     * @param getRequest   The Form request object includes [Parameters, headers]
+     * @param clazz The response model class
+     * @return The future of result, cancel this future will cancel the http call
+     * @param <T>   The type of response class
+     */
+    public <T> CompletableFuture<List<T>> getResultAsListAsync(String url, GetRequest getRequest, Class<T> clazz) {
+        if (hedgePolicy != null) {
+            return hedge(() -> newGetRequest(url, getRequest), toModels(clazz));
+        }
+        return enqueue(() -> newGetRequest(url, getRequest), toModels(clazz));
+    }
+
+    /**
+     * Call service API with [http:DELETE] without blocking the caller thread.
+     * @param url Service API URL
+     * @param deleteRequest The request object includes [parameter, headers]
+     * @param clazz The response model class
+     * @return The future of result, cancel this future will cancel the http call
+     * @param <T> The type of response class
+     */
+    public <T> CompletableFuture<T> deleteAsync(String url, DeleteRequest deleteRequest, Class<T> clazz) {
+        return enqueue(() -> newDeleteRequest(url, deleteRequest), toModel(clazz));
+    }
+
+    /**
+     * Call service API with [http:DELETE] return result as collections without blocking the caller thread.
+     * @param url Service API URL
+     * @param deleteRequest The request object includes [parameter, headers]
+     * @param clazz The response model class
+     * @return The future of result, cancel this future will cancel the http call
+     * @param <T> The type of response class
+     */
+    public <T> CompletableFuture<List<T>> deleteResultAsListAsync(String url, DeleteRequest deleteRequest, Class<T> clazz) {
+        return enqueue(() -> newDeleteRequest(url, deleteRequest), toModels(clazz));
+    }
+
+    /**
+     * Call service API with [http:DELETE] by json body without blocking the caller thread.
+     * @param url   Service API URL
+     * @param jsonRequest   The request model
+     * @param clazz The response model class
+     * @return The future of result, cancel this future will cancel the http call
+     * @param <T>   The type of response class
+     */
+    public <T> CompletableFuture<T> deleteAsync(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
+        return enqueue(() -> newJsonRequest(url, jsonRequest, HttpMethod.DELETE), toModel(clazz));
+    }
+
+    /**
+     * Call service API with [http:DELETE] by json body return result as collections without blocking the caller thread.
+     * @param url   Service API URL
+     * @param jsonRequest   The request model
+     * @param clazz The response model class
+     * @return The future of result, cancel this future will cancel the http call
+     * @param <T>   The type of response class
+     */
+    public <T> CompletableFuture<List<T>> deleteResultAsListAsync(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
+        return enqueue(() -> newJsonRequest(url, jsonRequest, HttpMethod.DELETE), toModels(clazz));
+    }
+
+    /**
+     * <pre>
+     * Call service API with http (GET) method return result as a lazy stream without blocking the caller thread.
+     * The future is completed when the response headers are received, the array elements are parsed
+     * while consuming the stream. The http response is released when the stream is fully consumed or closed.
+     * </pre>
+     * @param url   Service API URL
+     * @param getRequest   The Form request object includes [Parameters, headers]
+     * @param clazz The response element class
+     * @return The future of stream, cancel this future will cancel the http call
+     * @param <T>   The type of response class
+     */
+    public <T> CompletableFuture<Stream<T>> getResultAsStreamAsync(String url, GetRequest getRequest, Class<T> clazz) {
+        return enqueueAsStream(() -> newGetRequest(url, getRequest), clazz);
+    }
+
+    /**
+     * Call service API with POST by json body return result as a lazy stream without blocking the caller thread.
+     * The http response is released when the stream is fully consumed or closed.
+     * @param url Service API URL
+     * @param jsonRequest The request json model
+     * @param clazz The response element class
+     * @return The future of stream, cancel this future will cancel the http call
+     * @param <T> The type of response class
+     */
+    public <T> CompletableFuture<Stream<T>> postResultAsStreamAsync(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
+        return enqueueAsStream(() -> newJsonRequest(url, jsonRequest, HttpMethod.POST), clazz);
+    }
+
+    /**
+     * Call service API with PUT by json body return result as a lazy stream without blocking the caller thread.
+     * The http response is released when the stream is fully consumed or closed.
+     * @param url Service API URL
+     * @param jsonRequest The request json model
+     * @param clazz The response element class
+     * @return The future of stream, cancel this future will cancel the http call
+     * @param <T> The type of response class
+     */
+    public <T> CompletableFuture<Stream<T>> putResultAsStreamAsync(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
+        return enqueueAsStream(() -> newJsonRequest(url, jsonRequest, HttpMethod.PUT), clazz);
+    }
+
+    /**
+     * Call service API with POST by form return result as a lazy stream without blocking the caller thread.
+     * The http response is released when the stream is fully consumed or closed.
+     * @param url   Service API URL
+     * @param req   The Form request object includes [fields, headers]
+     * @param clazz The response element class
+     * @return The future of stream, cancel this future will cancel the http call
+     * @param <T>   The type of response class
+     */
+    public <T> CompletableFuture<Stream<T>> postFormResultAsStreamAsync(String url, FormRequest req, Class<T> clazz) {
+        return enqueueAsStream(() -> newFormRequest(url, req), clazz);
+    }
+
+    /**
+     * Call service API with [http:DELETE] return result as a lazy stream without blocking the caller thread.
+     * The http response is released when the stream is fully consumed or closed.
+     * @param url Service API URL
+     * @param deleteRequest The request object includes [parameter, headers]
+     * @param clazz The response element class
+     * @return The future of stream, cancel this future will cancel the http call
+     * @param <T> The type of response class
+     */
+    public <T> CompletableFuture<Stream<T>> deleteResultAsStreamAsync(String url, DeleteRequest deleteRequest, Class<T> clazz) {
+        return enqueueAsStream(() -> newDeleteRequest(url, deleteRequest), clazz);
+    }
+
+    /**
+     * The executor of OkHttp dispatcher which runs the asynchronous calls, e.g. for continue reading
+     * the response stream outside the caller thread.
+     * @return The executor of dispatcher
+     */
+    public ExecutorService getCallExecutor() {
+        return callClient().dispatcher().executorService();
+    }
+
+    /**
+     * <pre>
+     * Execute batch of calls with max parallelism of options, e.g. call the same endpoint for many ids.
+     * The latency of batch is about the slowest call instead of the sum of all calls.
+     * The calls to one host are also limited by maxRequestsPerHost of OkHttp dispatcher (default 5),
+     * a warning is logged when the max parallelism is above it.
+     * </pre>
+     * @param calls The calls
+     * @param options The options of parallelism, fail-fast and deadline
+     * @return The results in input order, each result is a value or {@link ClientApiException}
+     * @param <T> The type of result
+     */
+    public <T> List<BatchResult<T>> executeAll(Collection<BatchCall<T>> calls, BatchOptions options) {
+        int maxRequestsPerHost = callClient().dispatcher().getMaxRequestsPerHost();
+        if (options.getMaxParallelism() > maxRequestsPerHost && !batchParallelismWarned) {
+            batchParallelismWarned = true;
+            logger.warn("Batch max parallelism {} is above maxRequestsPerHost {} of dispatcher, "
+                    + "the calls to the same host wait in the dispatcher queue",
+                    options.getMaxParallelism(), maxRequestsPerHost);
+        }
+        return new BatchExecution<>(this, new ArrayList<>(calls), options).execute();
+    }
+
+    /**
+     * Execute batch of calls with max parallelism, collect all results without deadline.
+     * @param calls The calls
+     * @param maxParallelism The maximum in-flight calls
+     * @return The results in input order, each result is a value or {@link ClientApiException}
+     * @param <T> The type of result
+     */
+    public <T> List<BatchResult<T>> executeAll(Collection<BatchCall<T>> calls, int maxParallelism) {
+        return executeAll(calls, BatchOptions.of(maxParallelism));
+    }
+
+    private <T> T execute(Request request, BodyReader<T> reader) throws IOException {
+        return execute(newCall(request), reader);
+    }
+
+    private <T> T execute(Call call, BodyReader<T> reader) throws IOException {
+        long start = System.nanoTime();
+        try (Response resp = call.execute()) {
+            T result = readBody(resp, reader);
+            completeCall(call, start, resp.code(), null);
+            return result;
+        } catch (IOException | RuntimeException ex) {
+            throw failCall(call, start, ex);
+        }
+    }
+
+    private <T> T readBody(Response resp, BodyReader<T> reader) throws IOException {
+        if (!resp.isSuccessful()) {
+            throw throwException(resp);
+        }
+
+        ResponseBody body = resp.body();
+        BufferedSource source = body != null ? body.source() : new Buffer();
+        DataFormat format = responseFormat(body);
+        CallTimings timings = resp.request().tag(CallTimings.class);
+        if (timings == null) {
+            return reader.read(source, format);
+        }
+
+        long start = System.nanoTime();
+        T result = reader.read(timings.timed(source), format);
+        timings.decoded(System.nanoTime() - start);
+        return result;
+    }
+
+    private <T> Stream<T> executeAsStream(Request request, Class<T> clazz) throws IOException {
+        Call call = newCall(bypassCache(request));
+        long start = System.nanoTime();
+        Response resp;
+        try {
+            resp = call.execute();
+        } catch (IOException ex) {
+            throw failCall(call, start, ex);
+        }
+        try {
+            if (!resp.isSuccessful()) {
+                throw failCall(call, start, throwException(resp));
+            }
+            completeCall(call, start, resp.code(), null);
+            return toStream(resp, clazz);
+        } catch (Exception ex) {
+            resp.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Convert the successful response to lazy stream of array elements. The response is closed when the last
+     * element is consumed, the parse fails or the stream is closed, so a fully consumed stream does not leak
+     * the connection without try-with-resources.
+     * @param resp The http response
+     * @param clazz The response element class
+     * @return The stream of elements
+     * @param <T> The type of element
+     * @throws IOException If read response error
+     */
+    private <T> Stream<T> toStream(Response resp, Class<T> clazz) throws IOException {
+        try {
+            ResponseBody body = resp.body();
+            if (clazz == null || body == null || body.source().exhausted()) {
+                resp.close();
+                return Stream.<T>empty();
+            }
+
+            MappingIterator<T> iterator = JsonUtils.iterator(body.byteStream(), clazz, responseFormat(body));
+            AtomicBoolean closed = new AtomicBoolean();
+            Runnable release = () -> {
+                if (!closed.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    iterator.close();
+                } catch (IOException ex) {
+                    logger.debug("Close response stream error", ex);
+                } finally {
+                    resp.close();
+                }
+            };
+            Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    if (closed.get()) {
+                        return false;
+                    }
+                    T value;
+                    try {
+                        if (!iterator.hasNextValue()) {
+                            release.run();
+                            return false;
+                        }
+                        value = iterator.nextValue();
+                    } catch (IOException | RuntimeException ex) {
+                        release.run();
+                        throw throwException(ex);
+                    }
+                    action.accept(value);
+                    return true;
+                }
+            };
+            return StreamSupport.stream(spliterator, false).onClose(release);
+        } catch (Exception ex) {
+            resp.close();
+            throw ex;
+        }
+    }
+
+    private long download(String url, GetRequest getRequest, Path target) throws IOException {
+        DownloadRequest options = getRequest instanceof DownloadRequest ? (DownloadRequest) getRequest : null;
+        PartialFile file = PartialFile.open(target);
+        if (options != null && !options.isResume()) {
+            file.discard();
+        }
+
+        // identity encoding, the range is the offset of bytes on disk
+        Request request = bypassCache(newGetRequest(url, getRequest).newBuilder()
+                .header(HEADER_ACCEPT_ENCODING, "identity")
+                .build());
+        long offset = file.resumeOffset();
+        long size = downloadPart(request, file, offset, options);
+        if (size < 0) {
+            file.discard();
+            size = downloadPart(request, file, 0, options);
+        }
+        return size;
+    }
+
+    /**
+     * Download the content from offset to part file.
+     * @return The size of file, -1 when the range of part file is not satisfiable
+     */
+    private long downloadPart(Request request, PartialFile file, long offset, DownloadRequest options)
+            throws IOException {
+        if (offset > 0) {
+            request = request.newBuilder()
+                    .header(HEADER_RANGE, "bytes=" + offset + "-")
+                    .header(HEADER_IF_RANGE, file.getValidator())
+                    .build();
+        }
+
+        Call call = newCall(request);
+        long start = System.nanoTime();
+        try (Response resp = call.execute()) {
+            long size;
+            if (offset > 0 && resp.code() == HTTP_RANGE_NOT_SATISFIABLE) {
+                if (contentRange(resp)[1] != offset) {
+                    completeCall(call, start, resp.code(), null);
+                    return -1;
+                }
+                size = offset;
+            } else {
+                if (!resp.isSuccessful()) {
+                    throw throwException(resp);
+                }
+                boolean partial = offset > 0 && resp.code() == HTTP_PARTIAL_CONTENT;
+                long[] range = partial ? contentRange(resp) : null;
+                if (partial && range[0] != offset) {
+                    throw new ClientApiException(ClientApiException.ClientApiErrorCodes.CODE_API_ERROR, resp.code(),
+                            "Unexpected Content-Range " + resp.header(HEADER_CONTENT_RANGE) + " of offset " + offset);
+                }
+
+                ResponseBody body = Objects.requireNonNull(resp.body());
+                file.begin(partial ? file.getValidator() : validator(resp), partial ? range[1] : body.contentLength());
+                size = file.write(body.source(), partial ? offset : 0);
+            }
+
+            verifyDownload(file, size, options);
+            file.complete();
+            completeCall(call, start, resp.code(), null);
+            return size;
+        } catch (IOException | RuntimeException ex) {
+            throw failCall(call, start, ex);
+        }
+    }
+
+    private void verifyDownload(PartialFile file, long size, DownloadRequest options) throws IOException {
+        long expected = options != null && options.getExpectedLength() != null ? options.getExpectedLength() : file.getLength();
+        if (expected >= 0 && size != expected) {
+            if (size > expected) {
+                file.discard();
+            }
+            throw new ClientApiException(ClientApiException.ClientApiErrorCodes.CODE_API_ERROR,
+                    "Download length " + size + " does not match expected length " + expected);
+        }
+
+        if (options != null && Validators.isNotEmpty(options.getChecksum())) {
+            String checksum = file.checksum(options.getChecksumAlgorithm());
+            if (!checksum.equalsIgnoreCase(options.getChecksum().trim())) {
+                file.discard();
+                throw new ClientApiException(ClientApiException.ClientApiErrorCodes.CODE_API_ERROR,
+                        "Download " + options.getChecksumAlgorithm() + " checksum " + checksum + " does not match expected");
+            }
+        }
+    }
+
+    /**
+     * The strong validator of response for If-Range, the weak ETag can not be used.
+     * @param resp The http response
+     * @return The ETag or Last-Modified, null when the response is not resumable
+     */
+    private static String validator(Response resp) {
+        String etag = resp.header("ETag");
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return resp.header("Last-Modified");
+    }
+
+    /**
+     * Parse Content-Range, e.g. bytes 100-999/1000, the unsatisfied range has only total length.
+     * @param resp The http response
+     * @return The start and total length, -1 when unknown
+     */
+    private long[] contentRange(Response resp) {
+        long[] range = {-1, -1};
+        String value = resp.header(HEADER_CONTENT_RANGE);
+        if (value == null || !value.startsWith("bytes ")) {
+            return range;
+        }
+        int slash = value.indexOf('/');
+        int dash = value.indexOf('-');
+        try {
+            if (dash > 0 && (slash < 0 || dash < slash)) {
+                range[0] = Long.parseLong(value.substring(6, dash).trim());
+            }
+            if (slash > 0 && !value.endsWith("*")) {
+                range[1] = Long.parseLong(value.substring(slash + 1).trim());
+            }
+        } catch (NumberFormatException ex) {
+            logger.debug("Invalid Content-Range {}", value);
+        }
+        return range;
+    }
+
+    /**
+     * Execute the request with {@link Call#enqueue(Callback)}, the response body is read and converted
+     * on the OkHttp dispatcher thread. Cancel the returned future will cancel the underlying call.
+     * @param request The http request
+     * @param reader The reader of response body
+     * @return The future of converted result
+     * @param <T> The type of result
+     */
+    private <T> CompletableFuture<T> enqueue(Request request, BodyReader<T> reader) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Call call = newCall(request);
+        long start = System.nanoTime();
+        future.whenComplete((result, ex) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException ex) {
+                future.completeExceptionally(failCall(call, start, ex));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (Response resp = response) {
+                    T result = readBody(resp, reader);
+                    completeCall(call, start, resp.code(), null);
+                    future.complete(result);
+                } catch (Exception ex) {
+                    future.completeExceptionally(failCall(call, start, ex));
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Execute the request with {@link Call#enqueue(Callback)}, the future is completed with lazy stream
+     * when the response headers are received. The elements are parsed while consuming the stream.
+     * @param requestSupplier The supplier of http request
+     * @param clazz The response element class
+     * @return The future of stream, released when fully consumed or closed
+     * @param <T> The type of element
+     */
+    private <T> CompletableFuture<Stream<T>> enqueueAsStream(Supplier<Request> requestSupplier, Class<T> clazz) {
+        Call call;
+        try {
+            call = newCall(bypassCache(requestSupplier.get()));
+        } catch (Exception ex) {
+            return CompletableFuture.failedFuture(throwException(ex));
+        }
+
+        CompletableFuture<Stream<T>> future = new CompletableFuture<>();
+        long start = System.nanoTime();
+        future.whenComplete((result, ex) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException ex) {
+                future.completeExceptionally(failCall(call, start, ex));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try {
+                    if (!response.isSuccessful()) {
+                        throw throwException(response);
+                    }
+                    completeCall(call, start, response.code(), null);
+                    Stream<T> stream = toStream(response, clazz);
+                    if (!future.complete(stream)) {
+                        stream.close();
+                    }
+                } catch (Exception ex) {
+                    response.close();
+                    future.completeExceptionally(failCall(call, start, ex));
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Tag the request with {@link CacheBypass}, the streamed response is not buffered by {@link RequestCoalescer}
+     * or the response cache.
+     * @param request The http request
+     * @return The tagged request
+     */
+    private static Request bypassCache(Request request) {
+        return request.newBuilder().tag(CacheBypass.class, CacheBypass.INSTANCE).build();
+    }
+
+    private <T> CompletableFuture<T> enqueue(Supplier<Request> requestSupplier, BodyReader<T> reader) {
+        try {
+            return enqueue(requestSupplier.get(), reader);
+        } catch (Exception ex) {
+            return CompletableFuture.failedFuture(throwException(ex));
+        }
+    }
+
+    /**
+     * Execute the GET request with hedging of {@link HedgePolicy}. The second request is sent when the first
+     * has not completed after the hedge delay, the first successful result wins and the other call is cancelled.
+     * The result fails when all sent requests fail.
+     * @param requestSupplier The supplier of http request
+     * @param reader The reader of response body
+     * @return The future of converted result
+     * @param <T> The type of result
+     */
+    private <T> CompletableFuture<T> hedge(Supplier<Request> requestSupplier, BodyReader<T> reader) {
+        HedgePolicy policy = hedgePolicy;
+        Request request;
+        try {
+            request = requestSupplier.get();
+        } catch (Exception ex) {
+            return CompletableFuture.failedFuture(throwException(ex));
+        }
+
+        String endpoint = policy.endpoint(request.url());
+        CompletableFuture<T> result = new CompletableFuture<>();
+        HedgeState state = new HedgeState();
+        AtomicReference<CompletableFuture<T>> hedged = new AtomicReference<>();
+        CompletableFuture<T> primary = hedgeAttempt(request, reader, policy, endpoint, false, result, state);
+        ScheduledFuture<?> timer = HedgeScheduler.INSTANCE.schedule(() -> {
+            int current;
+            do {
+                current = state.pending.get();
+                if (current == 0 || result.isDone()) {
+                    return;
+                }
+            } while (!state.pending.compareAndSet(current, current + 1));
+            if (!policy.tryHedge()) {
+                // the primary may have failed after the pending was raised
+                state.release(result);
+                return;
+            }
+            logger.debug("Hedge request {}", request.url());
+            CompletableFuture<T> attempt = hedgeAttempt(hedgeRequest(request), reader, policy, endpoint, true,
+                    result, state);
+            hedged.set(attempt);
+            if (result.isDone()) {
+                attempt.cancel(true);
+            }
+        }, policy.delayMillis(endpoint), TimeUnit.MILLISECONDS);
+
+        result.whenComplete((value, ex) -> {
+            timer.cancel(false);
+            primary.cancel(true);
+            CompletableFuture<T> other = hedged.get();
+            if (other != null) {
+                other.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Execute the GET request with hedging of {@link HedgePolicy} for the blocking caller. The first request
+     * is executed on the caller thread, only the hedge request is enqueued to the dispatcher.
+     * The first successful result wins and the other call is cancelled.
+     * @param request The http request
+     * @param reader The reader of response body
+     * @return The converted result
+     * @param <T> The type of result
+     * @throws IOException If all sent requests fail
+     */
+    private <T> T hedgeExecute(Request request, BodyReader<T> reader) throws IOException {
+        HedgePolicy policy = hedgePolicy;
+        String endpoint = policy.endpoint(request.url());
+        Call call = newCall(request);
+        AtomicBoolean won = new AtomicBoolean();
+        CompletableFuture<T> closed = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<T>> hedged = new AtomicReference<>();
+        ScheduledFuture<?> timer = HedgeScheduler.INSTANCE.schedule(() -> {
+            // the slot is published before the hedge is sent, the caller waits for it when the first request fails
+            CompletableFuture<T> slot = new CompletableFuture<>();
+            if (!hedged.compareAndSet(null, slot)) {
+                return;
+            }
+            if (!policy.tryHedge()) {
+                slot.cancel(false);
+                return;
+            }
+            logger.debug("Hedge request {}", request.url());
+            long start = System.nanoTime();
+            CompletableFuture<T> attempt = enqueue(hedgeRequest(request), reader);
+            slot.whenComplete((value, ex) -> attempt.cancel(true));
+            attempt.whenComplete((value, ex) -> {
+                if (ex == null && won.compareAndSet(false, true)) {
+                    policy.record(endpoint, System.nanoTime() - start, true);
+                    call.cancel();
+                }
+                if (ex == null) {
+                    slot.complete(value);
+                } else {
+                    slot.completeExceptionally(ex);
+                }
+            });
+        }, policy.delayMillis(endpoint), TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        try {
+            T result = execute(call, reader);
+            if (won.compareAndSet(false, true)) {
+                policy.record(endpoint, System.nanoTime() - start, false);
+            }
+            return result;
+        } catch (IOException | RuntimeException ex) {
+            CompletableFuture<T> other = hedged.compareAndSet(null, closed) ? null : hedged.get();
+            if (other == null) {
+                throw ex;
+            }
+            try {
+                return join(other);
+            } catch (CancellationException cancelled) {
+                // the hedge was not sent
+                throw ex;
+            }
+        } finally {
+            timer.cancel(false);
+            CompletableFuture<T> other = hedged.getAndSet(closed);
+            if (other != null) {
+                other.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * The hedge request is tagged with {@link CacheBypass}, it is sent to network instead of joining
+     * the in-flight call or cached response of the first request. The hedge has its own {@link CallTimings},
+     * the timings of the winner are delivered.
+     * @param request The http request
+     * @return The hedge request
+     */
+    private static Request hedgeRequest(Request request) {
+        Request.Builder builder = request.newBuilder().tag(CacheBypass.class, CacheBypass.INSTANCE);
+        if (request.tag(CallTimings.class) != null) {
+            builder.tag(CallTimings.class, new CallTimings());
+        }
+        return builder.build();
+    }
+
+    private <T> CompletableFuture<T> hedgeAttempt(Request request, BodyReader<T> reader, HedgePolicy policy,
+                                                  String endpoint, boolean hedge, CompletableFuture<T> result,
+                                                  HedgeState state) {
+        long start = System.nanoTime();
+        CompletableFuture<T> attempt = enqueue(request, reader);
+        attempt.whenComplete((value, ex) -> {
+            if (ex == null) {
+                if (result.complete(value)) {
+                    policy.record(endpoint, System.nanoTime() - start, hedge);
+                }
+            } else {
+                state.failure.compareAndSet(null, ex);
+                state.release(result);
+            }
+        });
+        return attempt;
+    }
+
+    /**
+     * The state of async hedging, the number of requests which may still complete the result and the first failure.
+     * The result fails with the first failure when the last pending request is released.
+     */
+    private static final class HedgeState {
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private void release(CompletableFuture<?> result) {
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(failure.get());
+            }
+        }
+    }
+
+    /**
+     * Complete the call, record to {@link ClientMetrics}, log slow call of {@link CallTimings} and deliver
+     * the timings to the callback of request.
+     * The call cancelled by caller (e.g. the loser of hedge) is not recorded, logged or delivered,
+     * the call cancelled by its call timeout is.
+     * @param call The call
+     * @param start The start time of call in nanoseconds
+     * @param httpCode The http status code, 0 when no response
+     * @param error The error of call, null for successful call
+     */
+    private void completeCall(Call call, long start, int httpCode, ClientApiException error) {
+        if (call.isCanceled() && (error == null || !error.isCallTimeout())) {
+            return;
+        }
+        ClientMetrics metrics = clientMetrics;
+        if (metrics != null) {
+            metrics.recordCall(EndpointTag.endpoint(call.request()), System.nanoTime() - start, httpCode,
+                    error != null ? error.getError() : null);
+        }
+
+        CallTimings timings = call.request().tag(CallTimings.class);
+        if (timings == null) {
+            return;
+        }
+        Duration threshold = slowCallThreshold;
+        if (threshold != null && timings.getTotalNanos() >= threshold.toNanos()) {
+            logger.warn("Slow call {}", timings);
+        }
+        TimingsCallback callback = call.request().tag(TimingsCallback.class);
+        if (callback != null) {
+            try {
+                callback.consumer.accept(timings);
+            } catch (RuntimeException ex) {
+                logger.debug("Timings callback error", ex);
+            }
+        }
+    }
+
+    private ClientApiException failCall(Call call, long start, Exception ex) {
+        ClientApiException error = throwException(ex);
+        completeCall(call, start, ex instanceof ClientApiException ? error.getHttpCode() : 0, error);
+        return error;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Decode the response body directly from the response stream, without buffer whole body to byte[].
+     * @param clazz The response model class, null for discard the response body
+     * @return The reader of response body
+     * @param <T> The type of response class
+     */
+    private static <T> BodyReader<T> toModel(Class<T> clazz) {
+        return (source, format) -> {
+            if (clazz == null || source.exhausted()) {
+                return null;
+            }
+            return JsonUtils.model(source.inputStream(), clazz, format);
+        };
+    }
+
+    private static <T> BodyReader<List<T>> toModels(Class<T> clazz) {
+        return (source, format) -> {
+            if (clazz == null || source.exhausted()) {
+                return Collections.emptyList();
+            }
+            return JsonUtils.models(source.inputStream(), clazz, format);
+        };
+    }
+
+    /**
+     * The reader of collection result which is null (instead of empty list) for empty body or null class,
+     * the result of DELETE by json body.
+     * @param clazz The response model class
+     * @return The reader of response body
+     * @param <T> The type of response class
+     */
+    private static <T> BodyReader<List<T>> toModelsOrNull(Class<T> clazz) {
+        return (source, format) -> {
+            if (clazz == null || source.exhausted()) {
+                return null;
+            }
+            return JsonUtils.models(source.inputStream(), clazz, format);
+        };
+    }
+
+    /**
+     * The data format of response by Content-Type, json when the adapter format is json
+     * or the Content-Type is not a binary format.
+     * @param body The response body
+     * @return The data format of response
+     */
+    private DataFormat responseFormat(ResponseBody body) {
+        if (dataFormat == DataFormat.JSON || body == null || body.contentType() == null) {
+            return DataFormat.JSON;
+        }
+        MediaType type = body.contentType();
+        DataFormat format = DataFormat.of(type.type() + "/" + type.subtype());
+        return format != null && format.isAvailable() ? format : DataFormat.JSON;
+    }
+
+    private Request newJsonRequest(String url, JsonRequest<?> req, HttpMethod httpMethod) {
+        logInfo(url, req);
+
+        RequestBody body = JsonRequestBody.create(req, TYPE_JSON, dataFormat, formatType);
+        Request.Builder builder = jsonRequest(url, req, body.contentType());
+        if (HttpMethod.PUT == httpMethod) {
+            return builder.put(body).build();
+        } else if (HttpMethod.PATCH == httpMethod) {
+            return builder.patch(body).build();
+        } else if (HttpMethod.DELETE == httpMethod) {
+            return builder.delete(body).build();
+        } else {
+            return builder.post(body).build();
+        }
+    }
+
+    private Request newFormRequest(String url, FormRequest req) {
+        FormBody.Builder builder = new FormBody.Builder();
+        if (Validators.isNotNull(req) && Validators.isNotEmpty(req.getFields())) {
+            req.getFields().forEach(builder::add);
+        }
+
+        logInfo(url, req);
+
+        RequestBody body = builder.build();
+        return formRequest(url, body, req);
+    }
+
+    private Request newMultipartRequest(String url, MultipartRequest req) {
+        logInfo(url, req);
+        if (Validators.isNullOne(url, req)) {
+            throw new ClientApiException(ClientApiException.ClientApiErrorCodes.CODE_API_ERROR, "Invalid required parameter");
+        }
+
+        RequestBody body = multipartRequestBody(req);
+        return formMultipart(url, body, req);
+    }
+
+    private Request newGetRequest(String url, GetRequest req) {
+        HttpUrl.Builder builder = Objects.requireNonNull(HttpUrl.parse(url)).newBuilder();
+        //Query Parameters
+        if (Validators.isNotNull(req) && Validators.isNotEmpty(req.getParameters())) {
+            req.getParameters().forEach(builder::addEncodedQueryParameter);
+            url = builder.build().toString();
+        }
+
+        logInfo(url, req);
+
+        return getRequest(url, req);
+    }
+
+    private Request newDeleteRequest(String url, DeleteRequest req) {
+        HttpUrl.Builder builder = Objects.requireNonNull(HttpUrl.parse(url)).newBuilder();
+        //Query Parameters
+        if (Validators.isNotNull(req) && Validators.isNotEmpty(req.getParameters())) {
+            req.getParameters().forEach(builder::addEncodedQueryParameter);
+            url = builder.build().toString();
+        }
+
+        logInfo(url, req);
+
+        return deleteRequest(url, req);
+    }
+
     private RequestBody multipartRequestBody(MultipartRequest req) {
         MultipartBody.Builder builder = new MultipartBody.Builder().setType(MultipartBody.FORM);
         //Form Field
@@ -707,35 +2212,92 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
     }
 
     private Request formRequest(String url, RequestBody body, FormRequest req) {
-        Request.Builder builder = new Request.Builder().url(url)
+        Request.Builder builder = requestBuilder(url, req, true)
                 .header(HEADER_CONTENT_TYPE, CONTENT_TYPE_FORM)
                 .header(HEADER_ACCEPT, CONTENT_TYPE_FORM);
-        if (Validators.isNotNull(req) && Validators.isNotEmpty(req.getHeaders())) {
-            req.getHeaders().forEach(builder::addHeader);
-        }
+        addHeaders(builder, req);
         return builder.post(body).build();
     }
 
     private Request formMultipart(String url, RequestBody body, MultipartRequest req) {
-        Request.Builder builder = new Request.Builder().url(url);
-        if (Validators.isNotNull(req) && Validators.isNotEmpty(req.getHeaders())) {
-            req.getHeaders().forEach(builder::addHeader);
-        }
+        Request.Builder builder = requestBuilder(url, req, true);
+        addHeaders(builder, req);
         return builder.post(body).build();
     }
 
-    private Request.Builder jsonRequest(String url, JsonRequest<?> req) {
+    private Request.Builder jsonRequest(String url, JsonRequest<?> req, MediaType contentType) {
+        Request.Builder builder = requestBuilder(url, req, true);
+        builder.addHeader(HEADER_CONTENT_TYPE, contentType != null ? contentType.toString() : CONTENT_TYPE_JSON)
+                .addHeader(HEADER_ACCEPT, dataFormat == DataFormat.JSON ? CONTENT_TYPE_JSON : DataFormatFallback.accept(dataFormat));
+        addHeaders(builder, req);
+        return builder;
+    }
+
+    /**
+     * Create request builder with the call options of request, e.g. retry policy.
+     * @param url Service API URL
+     * @param req The request object
+     * @param withBody The request has body (POST, PUT, PATCH)
+     * @return The request builder
+     */
+    private Request.Builder requestBuilder(String url, io.github.jdevlibs.spring.client.request.Request req,
+                                           boolean withBody) {
         Request.Builder builder = new Request.Builder().url(url);
-        builder.addHeader(HEADER_CONTENT_TYPE, CONTENT_TYPE_JSON)
-                .addHeader(HEADER_ACCEPT, CONTENT_TYPE_JSON);
-        if (Validators.isNotNull(req) && Validators.isNotEmpty(req.getHeaders())) {
-            req.getHeaders().forEach(builder::addHeader);
+        if (clientMetrics != null) {
+            builder.tag(EndpointTag.class, new EndpointTag());
+        }
+        Consumer<CallTimings> callback = Validators.isNotNull(req) ? req.getTimingsCallback() : null;
+        if (slowCallThreshold != null || callback != null || (Validators.isNotNull(req) && req.isCaptureTimings())) {
+            builder.tag(CallTimings.class, new CallTimings());
+            if (callback != null) {
+                builder.tag(TimingsCallback.class, new TimingsCallback(callback));
+            }
+        }
+        if (Validators.isNull(req)) {
+            return builder;
+        }
+
+        ClientTimeouts timeouts = ClientTimeouts.of(req);
+        if (timeouts != null) {
+            builder.tag(ClientTimeouts.class, timeouts);
+        }
+        RetryPolicy policy = req.getRetryPolicy() != null ? req.getRetryPolicy() : retryPolicy;
+        if (req.getRetryPolicy() != null) {
+            builder.tag(RetryPolicy.class, req.getRetryPolicy());
+            enableRequestRetryPolicy();
+        }
+        if (withBody && req.getCompression() != null) {
+            builder.tag(CompressionMode.class, req.getCompression());
+        }
+        if (withBody && policy != null && Validators.isNotEmpty(req.getId())) {
+            builder.header(RetryInterceptor.HEADER_IDEMPOTENCY_KEY, req.getId());
         }
         return builder;
     }
 
-    private RequestBody jsonRequestBody(String json) {
-        return RequestBody.create(json, TYPE_JSON);
+    /**
+     * The retry interceptor is installed only with retry configuration, the first request with
+     * its own retry policy rebuilds the call client with the interceptor.
+     */
+    private void enableRequestRetryPolicy() {
+        if (!requestRetryPolicy) {
+            requestRetryPolicy = true;
+            if (retryInterceptor == null) {
+                callClient = null;
+            }
+        }
+    }
+
+    private void addAccept(Request.Builder builder) {
+        if (dataFormat != DataFormat.JSON) {
+            builder.header(HEADER_ACCEPT, DataFormatFallback.accept(dataFormat));
+        }
+    }
+
+    private void addHeaders(Request.Builder builder, io.github.jdevlibs.spring.client.request.Request req) {
+        if (Validators.isNotNull(req) && Validators.isNotEmpty(req.getHeaders())) {
+            req.getHeaders().forEach(builder::addHeader);
+        }
     }
 
     private RequestBody createFile(MultipartRequest.FilePart file) {
@@ -755,21 +2317,17 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
     }
 
     private Request getRequest(String url, GetRequest req) {
-        if (Validators.isNotNull(req) && Validators.isNotEmpty(req.getHeaders())) {
-            Request.Builder builder = new Request.Builder().url(url);
-            req.getHeaders().forEach(builder::addHeader);
-            return builder.build();
-        }
-        return new Request.Builder().url(url).build();
+        Request.Builder builder = requestBuilder(url, req, false);
+        addAccept(builder);
+        addHeaders(builder, req);
+        return builder.build();
     }
 
     private Request deleteRequest(String url, DeleteRequest req) {
-        if (Validators.isNotNull(req) && Validators.isNotEmpty(req.getHeaders())) {
-            Request.Builder builder = new Request.Builder().url(url);
-            req.getHeaders().forEach(builder::addHeader);
-            return builder.delete().build();
-        }
-        return new Request.Builder().url(url).delete().build();
+        Request.Builder builder = requestBuilder(url, req, false);
+        addAccept(builder);
+        addHeaders(builder, req);
+        return builder.delete().build();
     }
 
     private ClientApiException throwException(Response resp) {
@@ -802,24 +2360,38 @@ public abstract class OkHttpClientAdapter implements InitializingBean {
 
     private ClientApiException throwException(Exception ex) {
         if (ex instanceof ClientApiException) {
-            throw (ClientApiException) ex;
+            return (ClientApiException) ex;
         }
+        return new ClientApiException(ex, ClientApiException.ClientApiErrorCodes.from(ex));
+    }
 
-        if (ex instanceof SocketTimeoutException) {
-            String err = ex.toString();
-            if (err.contains(TIMEOUT_CONN)) {
-                throw new ClientApiException(ex, ClientApiException.ClientApiErrorCodes.CODE_API_TIMEOUT_CONNECTION);
-            } else if (err.contains(TIMEOUT_READ)) {
-                throw new ClientApiException(ex, ClientApiException.ClientApiErrorCodes.CODE_API_TIMEOUT_READ);
-            } else if (err.contains(TIMEOUT_WRITE)) {
-                throw new ClientApiException(ex, ClientApiException.ClientApiErrorCodes.CODE_API_TIMEOUT_WRITE);
-            } else {
-                throw new ClientApiException(ex, ClientApiException.ClientApiErrorCodes.CODE_API_ERROR);
-            }
-        } else if (ex instanceof UnknownHostException || ex instanceof SSLHandshakeException) {
-            throw new ClientApiException(ex, ClientApiException.ClientApiErrorCodes.CODE_API_UNKNOWN_HOST);
+    private static final class HedgeScheduler {
+        private static final ScheduledThreadPoolExecutor INSTANCE = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "OkHttpClientAdapter-hedge");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        static {
+            INSTANCE.setRemoveOnCancelPolicy(true);
+        }
+    }
+
+    /**
+     * The request tag of {@link io.github.jdevlibs.spring.client.request.Request#getTimingsCallback()},
+     * the caller request is not modified by the call.
+     */
+    private static final class TimingsCallback {
+        private final Consumer<CallTimings> consumer;
+
+        private TimingsCallback(Consumer<CallTimings> consumer) {
+            this.consumer = consumer;
         }
-        throw new ClientApiException(ex, ClientApiException.ClientApiErrorCodes.CODE_API_ERROR);
+    }
+
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(BufferedSource source, DataFormat format) throws IOException;
     }
 
     public enum HttpMethod {
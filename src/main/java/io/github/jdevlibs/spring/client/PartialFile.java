@@ -0,0 +1,201 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client;
+
+import okio.BufferedSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+/**
+ * <pre>
+ * The partial file of download, the content is written to [target].part and the validator of response
+ * (strong ETag or Last-Modified) with total length to [target].part.meta for resume by Range/If-Range.
+ * The part file is moved to target when the download is complete.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+final class PartialFile {
+    private static final String PART_SUFFIX = ".part";
+    private static final String META_SUFFIX = ".part.meta";
+    private static final String KEY_VALIDATOR = "validator";
+    private static final String KEY_LENGTH = "length";
+    private static final long TRANSFER_SIZE = 8L * 1024 * 1024;
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path target;
+    private final Path part;
+    private final Path meta;
+    private String validator;
+    private long length = -1;
+
+    private PartialFile(Path target) {
+        this.target = target;
+        this.part = target.resolveSibling(target.getFileName() + PART_SUFFIX);
+        this.meta = target.resolveSibling(target.getFileName() + META_SUFFIX);
+    }
+
+    /**
+     * Open the partial file of target, the metadata of previous download is loaded.
+     * @param target The target file
+     * @return The partial file
+     * @throws IOException If read metadata error
+     */
+    static PartialFile open(Path target) throws IOException {
+        PartialFile file = new PartialFile(target);
+        if (Files.exists(file.meta)) {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(file.meta)) {
+                properties.load(in);
+            }
+            file.validator = properties.getProperty(KEY_VALIDATOR);
+            file.length = Long.parseLong(properties.getProperty(KEY_LENGTH, "-1"));
+        }
+        return file;
+    }
+
+    String getValidator() {
+        return validator;
+    }
+
+    long getLength() {
+        return length;
+    }
+
+    /**
+     * @return The size of part file which can be resumed, 0 when no part file or no validator
+     * @throws IOException If read file size error
+     */
+    long resumeOffset() throws IOException {
+        if (validator == null || !Files.exists(part)) {
+            return 0;
+        }
+        long size = Files.size(part);
+        return length < 0 || size <= length ? size : 0;
+    }
+
+    /**
+     * Start writing the response, the metadata is saved before the content.
+     * @param validator The strong validator of response, null for not resumable
+     * @param length The total length of content, -1 when unknown
+     * @throws IOException If write metadata error
+     */
+    void begin(String validator, long length) throws IOException {
+        this.validator = validator;
+        this.length = length;
+        Files.createDirectories(part.toAbsolutePath().getParent());
+        if (validator == null) {
+            Files.deleteIfExists(meta);
+            return;
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty(KEY_VALIDATOR, validator);
+        properties.setProperty(KEY_LENGTH, Long.toString(length));
+        try (OutputStream out = Files.newOutputStream(meta)) {
+            properties.store(out, null);
+        }
+    }
+
+    /**
+     * Transfer the source to part file from position, the content is moved by okio segments
+     * to the file channel without buffer whole content.
+     * @param source The response source
+     * @param position The position of part file
+     * @return The size of part file
+     * @throws IOException If read or write error
+     */
+    long write(BufferedSource source, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(position);
+            long size = position;
+            while (!source.exhausted()) {
+                size += channel.transferFrom(source, size, TRANSFER_SIZE);
+            }
+            return size;
+        }
+    }
+
+    /**
+     * @param algorithm The digest algorithm, e.g. SHA-256
+     * @return The hex digest of part file
+     * @throws IOException If read file error or the algorithm is not supported
+     */
+    String checksum(String algorithm) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException("Unsupported checksum algorithm " + algorithm, ex);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(DIGEST_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+
+        byte[] hash = digest.digest();
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0x0f];
+            hex[i * 2 + 1] = HEX[hash[i] & 0x0f];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Move the part file to target and remove the metadata.
+     * @throws IOException If move file error
+     */
+    void complete() throws IOException {
+        try {
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.deleteIfExists(meta);
+    }
+
+    /**
+     * Remove the part file and metadata, the next download starts from the beginning.
+     * @throws IOException If delete file error
+     */
+    void discard() throws IOException {
+        validator = null;
+        length = -1;
+        Files.deleteIfExists(part);
+        Files.deleteIfExists(meta);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.batch;
+
+import io.github.jdevlibs.spring.client.OkHttpClientAdapter;
+import io.github.jdevlibs.spring.client.request.DeleteRequest;
+import io.github.jdevlibs.spring.client.request.FormRequest;
+import io.github.jdevlibs.spring.client.request.GetRequest;
+import io.github.jdevlibs.spring.client.request.JsonRequest;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * <pre>
+ * Typed descriptor of a call in batch of {@link OkHttpClientAdapter#executeAll(Collection, BatchOptions)}.
+ * The call is executed by the async methods of adapter, so retry, cache and limiters are applied.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ * @param <T> The type of result
+ */
+public final class BatchCall<T> {
+    private final Function<OkHttpClientAdapter, CompletableFuture<T>> invoker;
+
+    private BatchCall(Function<OkHttpClientAdapter, CompletableFuture<T>> invoker) {
+        this.invoker = invoker;
+    }
+
+    /**
+     * Create custom call
+     * @param invoker The function which starts the async call of adapter
+     * @return The batch call
+     * @param <T> The type of result
+     */
+    public static <T> BatchCall<T> of(Function<OkHttpClientAdapter, CompletableFuture<T>> invoker) {
+        return new BatchCall<>(invoker);
+    }
+
+    public static <T> BatchCall<T> get(String url, GetRequest getRequest, Class<T> clazz) {
+        return new BatchCall<>(adapter -> adapter.getAsync(url, getRequest, clazz));
+    }
+
+    public static <T> BatchCall<List<T>> getResultAsList(String url, GetRequest getRequest, Class<T> clazz) {
+        return new BatchCall<>(adapter -> adapter.getResultAsListAsync(url, getRequest, clazz));
+    }
+
+    public static <T> BatchCall<T> post(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
+        return new BatchCall<>(adapter -> adapter.postAsync(url, jsonRequest, clazz));
+    }
+
+    public static <T> BatchCall<T> put(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
+        return new BatchCall<>(adapter -> adapter.putAsync(url, jsonRequest, clazz));
+    }
+
+    public static <T> BatchCall<T> postForm(String url, FormRequest req, Class<T> clazz) {
+        return new BatchCall<>(adapter -> adapter.postFormAsync(url, req, clazz));
+    }
+
+    public static <T> BatchCall<T> delete(String url, DeleteRequest deleteRequest, Class<T> clazz) {
+        return new BatchCall<>(adapter -> adapter.deleteAsync(url, deleteRequest, clazz));
+    }
+
+    /**
+     * Start the call
+     * @param adapter The adapter
+     * @return The future of result
+     */
+    public CompletableFuture<T> start(OkHttpClientAdapter adapter) {
+        return invoker.apply(adapter);
+    }
+}
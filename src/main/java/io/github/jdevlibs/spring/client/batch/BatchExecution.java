@@ -0,0 +1,172 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.batch;
+
+import io.github.jdevlibs.spring.client.OkHttpClientAdapter;
+import io.github.jdevlibs.spring.exception.ClientApiException;
+import io.github.jdevlibs.spring.exception.ClientApiException.ClientApiErrorCodes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <pre>
+ * Execution of batch calls with bounded parallelism. The next call is started when a call completes,
+ * the caller thread only waits for the batch. Results are kept in input order.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ * @param <T> The type of result
+ */
+public class BatchExecution<T> {
+    private final OkHttpClientAdapter adapter;
+    private final List<BatchCall<T>> calls;
+    private final BatchOptions options;
+    private final int maxParallelism;
+    private final AtomicReferenceArray<BatchResult<T>> results;
+    private final AtomicReferenceArray<CompletableFuture<T>> futures;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+    private int next;
+
+    public BatchExecution(OkHttpClientAdapter adapter, List<BatchCall<T>> calls, BatchOptions options) {
+        this.adapter = adapter;
+        this.calls = calls;
+        this.options = options;
+        this.maxParallelism = Math.max(1, options.getMaxParallelism());
+        this.results = new AtomicReferenceArray<>(calls.size());
+        this.futures = new AtomicReferenceArray<>(calls.size());
+    }
+
+    /**
+     * Execute the batch and wait for all results, or the deadline.
+     * @return The results in input order
+     * @throws ClientApiException The first error in fail-fast mode
+     */
+    public List<BatchResult<T>> execute() {
+        if (calls.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        drain();
+        String cancelMessage = null;
+        try {
+            if (options.getDeadline() != null) {
+                completion.get(options.getDeadline().toMillis(), TimeUnit.MILLISECONDS);
+            } else {
+                completion.get();
+            }
+        } catch (TimeoutException ex) {
+            cancelMessage = "Batch deadline exceeded";
+        } catch (ExecutionException ex) {
+            cancel(ClientApiErrorCodes.CODE_API_ERROR, "Batch cancelled by fail-fast");
+            throw toException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            cancel(ClientApiErrorCodes.CODE_API_ERROR, "Batch interrupted");
+            throw new ClientApiException(ex, "Batch interrupted");
+        }
+
+        if (cancelMessage != null) {
+            cancel(ClientApiErrorCodes.CODE_API_TIMEOUT_CALL, cancelMessage);
+        }
+        List<BatchResult<T>> list = new ArrayList<>(calls.size());
+        for (int i = 0; i < calls.size(); i++) {
+            list.add(results.get(i));
+        }
+        return list;
+    }
+
+    /**
+     * Start calls up to max parallelism, the loop avoids recursion when a call completes synchronously.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            while (next < calls.size() && running.get() < maxParallelism && !completion.isDone()) {
+                running.incrementAndGet();
+                start(next++);
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private void start(int index) {
+        CompletableFuture<T> future;
+        try {
+            future = calls.get(index).start(adapter);
+        } catch (Exception ex) {
+            future = CompletableFuture.failedFuture(ex);
+        }
+        futures.set(index, future);
+        future.whenComplete((value, ex) -> {
+            running.decrementAndGet();
+            if (ex == null) {
+                results.compareAndSet(index, null, BatchResult.success(index, value));
+            } else {
+                ClientApiException error = toException(ex);
+                results.compareAndSet(index, null, BatchResult.failure(index, error));
+                if (options.isFailFast()) {
+                    completion.completeExceptionally(error);
+                }
+            }
+            if (completed.incrementAndGet() == calls.size()) {
+                completion.complete(null);
+            }
+            drain();
+        });
+    }
+
+    /**
+     * Cancel the unfinished calls, the result of each call is the error of code, e.g.
+     * {@link ClientApiErrorCodes#CODE_API_TIMEOUT_CALL} for the expired deadline.
+     */
+    private void cancel(ClientApiErrorCodes code, String message) {
+        completion.cancel(false);
+        for (int i = 0; i < calls.size(); i++) {
+            if (results.get(i) != null) {
+                continue;
+            }
+            ClientApiException error = new ClientApiException(code, message);
+            if (results.compareAndSet(i, null, BatchResult.failure(i, error))) {
+                CompletableFuture<T> future = futures.get(i);
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    private static ClientApiException toException(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof ClientApiException) {
+            return (ClientApiException) cause;
+        }
+        return new ClientApiException(cause, ClientApiErrorCodes.from(cause));
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.batch;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * <pre>
+ * Options of batch execution.
+ *  - maxParallelism : the maximum in-flight calls, the calls to the same host are also limited by
+ *                     maxRequestsPerHost of OkHttp dispatcher (default 5), the calls above it wait
+ *                     in the dispatcher queue. Raise maxRequestsPerHost of the http client (or
+ *                     {@code setVirtualThreads(maxRequests, maxRequestsPerHost)} of adapter) for more.
+ *  - failFast       : cancel the batch and throw the first error, otherwise collect all results
+ *  - deadline       : the overall deadline of batch, the unfinished calls are cancelled with
+ *                     the error of CODE_API_TIMEOUT_CALL
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+@Data
+public class BatchOptions {
+    private int maxParallelism = 8;
+    private boolean failFast;
+    private Duration deadline;
+
+    public static BatchOptions of(int maxParallelism) {
+        BatchOptions options = new BatchOptions();
+        options.setMaxParallelism(maxParallelism);
+        return options;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.batch;
+
+import io.github.jdevlibs.spring.exception.ClientApiException;
+import lombok.ToString;
+
+/**
+ * Result of a call in batch, either the value or the error.
+ * @author supot.jdev
+ * @version 1.0
+ * @param <T> The type of result
+ */
+@ToString
+public final class BatchResult<T> {
+    private final int index;
+    private final T value;
+    private final ClientApiException error;
+
+    private BatchResult(int index, T value, ClientApiException error) {
+        this.index = index;
+        this.value = value;
+        this.error = error;
+    }
+
+    public static <T> BatchResult<T> success(int index, T value) {
+        return new BatchResult<>(index, value, null);
+    }
+
+    public static <T> BatchResult<T> failure(int index, ClientApiException error) {
+        return new BatchResult<>(index, null, error);
+    }
+
+    /** @return The index of call in batch */
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public ClientApiException getError() {
+        return error;
+    }
+
+    /**
+     * @return The value of successful call
+     * @throws ClientApiException The error of failed call
+     */
+    public T getOrThrow() {
+        if (error != null) {
+            throw error;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.cache;
+
+/**
+ * <pre>
+ * Request tag which excludes the request from the shared responses of {@link RequestCoalescer}
+ * and {@link ResponseCacheInterceptor}, the request is always sent to network and the response is not buffered,
+ * e.g. the streamed result or the hedge request.
+ * Usage: requestBuilder.tag(CacheBypass.class, CacheBypass.INSTANCE)
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public final class CacheBypass {
+    public static final CacheBypass INSTANCE = new CacheBypass();
+
+    private CacheBypass() {
+
+    }
+}
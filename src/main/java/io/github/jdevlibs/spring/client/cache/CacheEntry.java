@@ -0,0 +1,300 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.cache;
+
+import okhttp3.*;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The stored response of {@link HttpResponseCache}, includes freshness calculation of RFC 7234.
+ * @author supot.jdev
+ * @version 1.0
+ */
+final class CacheEntry {
+    private static final int FORMAT_VERSION = 1;
+    private static final String HEADER_AGE = "Age";
+    private static final String HEADER_DATE = "Date";
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_VARY = "Vary";
+    private static final String HEADER_EXPIRES = "Expires";
+    private static final String HEADER_CACHE_CONTROL = "Cache-Control";
+    private static final String HEADER_AUTHORIZATION = "Authorization";
+    private static final String HEADER_LAST_MODIFIED = "Last-Modified";
+    private static final String HEADER_CONTENT_TYPE = "Content-Type";
+    private static final String STALE_WHILE_REVALIDATE = "stale-while-revalidate=";
+    private static final Set<String> NOT_UPDATED_HEADERS = new HashSet<>(Arrays.asList(
+            "content-length", "content-encoding", "transfer-encoding"));
+
+    private final String key;
+    private final int code;
+    private final String message;
+    private final Headers headers;
+    private final Headers varyHeaders;
+    private final byte[] body;
+    private final long sentMillis;
+    private final long receivedMillis;
+
+    CacheEntry(String key, int code, String message, Headers headers, Headers varyHeaders,
+               byte[] body, long sentMillis, long receivedMillis) {
+        this.key = key;
+        this.code = code;
+        this.message = message;
+        this.headers = headers;
+        this.varyHeaders = varyHeaders;
+        this.body = body;
+        this.sentMillis = sentMillis;
+        this.receivedMillis = receivedMillis;
+    }
+
+    static CacheEntry of(String key, Request request, Response response, byte[] body) {
+        return new CacheEntry(key, response.code(), response.message(), response.headers(),
+                varyHeaders(request, response.headers()), body,
+                response.sentRequestAtMillis(), response.receivedResponseAtMillis());
+    }
+
+    String key() {
+        return key;
+    }
+
+    int weight() {
+        return body.length + 256;
+    }
+
+    int bodyLength() {
+        return body.length;
+    }
+
+    boolean matchVary(Request request) {
+        for (String name : varyHeaders.names()) {
+            if (!Objects.equals(varyHeaders.get(name), String.join(",", request.headers(name)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isFresh(long nowMillis) {
+        return age(nowMillis) < freshnessLifetime();
+    }
+
+    boolean isStaleWhileRevalidate(long nowMillis) {
+        CacheControl cacheControl = CacheControl.parse(headers);
+        if (cacheControl.mustRevalidate() || cacheControl.noCache()) {
+            return false;
+        }
+        return age(nowMillis) < freshnessLifetime() + staleWhileRevalidate();
+    }
+
+    boolean hasValidator() {
+        return headers.get(HEADER_ETAG) != null || headers.get(HEADER_LAST_MODIFIED) != null;
+    }
+
+    /**
+     * Create conditional request of revalidation with If-None-Match and If-Modified-Since.
+     */
+    Request conditionalRequest(Request request) {
+        Request.Builder builder = request.newBuilder();
+        String etag = headers.get(HEADER_ETAG);
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        String lastModified = headers.get(HEADER_LAST_MODIFIED);
+        if (lastModified != null) {
+            builder.header("If-Modified-Since", lastModified);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Merge the headers of 304 (Not Modified) response into stored response.
+     */
+    CacheEntry revalidated(Response notModified) {
+        Headers.Builder builder = new Headers.Builder();
+        Headers updated = notModified.headers();
+        for (int i = 0; i < headers.size(); i++) {
+            String name = headers.name(i);
+            if (updated.get(name) == null || NOT_UPDATED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                builder.add(name, headers.value(i));
+            }
+        }
+        for (int i = 0; i < updated.size(); i++) {
+            String name = updated.name(i);
+            if (!NOT_UPDATED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                builder.add(name, updated.value(i));
+            }
+        }
+        return new CacheEntry(key, code, message, builder.build(), varyHeaders, body,
+                notModified.sentRequestAtMillis(), notModified.receivedResponseAtMillis());
+    }
+
+    Response response(Request request, boolean stale) {
+        String contentType = headers.get(HEADER_CONTENT_TYPE);
+        Response.Builder builder = new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message(message)
+                .headers(headers)
+                .body(ResponseBody.create(body, contentType != null ? MediaType.parse(contentType) : null))
+                .sentRequestAtMillis(sentMillis)
+                .receivedResponseAtMillis(receivedMillis);
+        if (stale) {
+            builder.addHeader("Warning", "110 - \"Response is Stale\"");
+        }
+        return builder.build();
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(key);
+        out.writeInt(code);
+        out.writeUTF(message);
+        writeHeaders(out, headers);
+        writeHeaders(out, varyHeaders);
+        out.writeLong(sentMillis);
+        out.writeLong(receivedMillis);
+        out.writeInt(body.length);
+        out.write(body);
+    }
+
+    static CacheEntry readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unsupported cache entry format");
+        }
+        String key = in.readUTF();
+        int code = in.readInt();
+        String message = in.readUTF();
+        Headers headers = readHeaders(in);
+        Headers varyHeaders = readHeaders(in);
+        long sentMillis = in.readLong();
+        long receivedMillis = in.readLong();
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        return new CacheEntry(key, code, message, headers, varyHeaders, body, sentMillis, receivedMillis);
+    }
+
+    private long age(long nowMillis) {
+        long apparentAge = Math.max(0, receivedMillis - dateMillis(receivedMillis));
+        long ageHeader = TimeUnit.SECONDS.toMillis(parseSeconds(headers.get(HEADER_AGE), 0));
+        long responseDelay = Math.max(0, receivedMillis - sentMillis);
+        return Math.max(apparentAge, ageHeader) + responseDelay + Math.max(0, nowMillis - receivedMillis);
+    }
+
+    private long freshnessLifetime() {
+        CacheControl cacheControl = CacheControl.parse(headers);
+        if (cacheControl.noCache()) {
+            return 0;
+        }
+        if (cacheControl.sMaxAgeSeconds() >= 0) {
+            return TimeUnit.SECONDS.toMillis(cacheControl.sMaxAgeSeconds());
+        }
+        if (cacheControl.maxAgeSeconds() >= 0) {
+            return TimeUnit.SECONDS.toMillis(cacheControl.maxAgeSeconds());
+        }
+        Date expiresDate = headers.getDate(HEADER_EXPIRES);
+        if (expiresDate != null) {
+            return Math.max(0, expiresDate.getTime() - dateMillis(receivedMillis));
+        }
+        return 0;
+    }
+
+    private long staleWhileRevalidate() {
+        for (String value : headers.values(HEADER_CACHE_CONTROL)) {
+            for (String directive : value.split(",")) {
+                String item = directive.trim().toLowerCase(Locale.ROOT);
+                if (item.startsWith(STALE_WHILE_REVALIDATE)) {
+                    return TimeUnit.SECONDS.toMillis(parseSeconds(item.substring(STALE_WHILE_REVALIDATE.length()), 0));
+                }
+            }
+        }
+        return 0;
+    }
+
+    private long dateMillis(long defaultValue) {
+        Date servedDate = headers.getDate(HEADER_DATE);
+        return servedDate != null ? servedDate.getTime() : defaultValue;
+    }
+
+    static boolean isCacheable(Request request, Response response) {
+        switch (response.code()) {
+            case 200: case 203: case 204: case 300: case 301: case 404: case 405: case 410: case 414: case 501:
+                break;
+            default:
+                return false;
+        }
+        CacheControl cacheControl = response.cacheControl();
+        if (request.cacheControl().noStore() || cacheControl.noStore()) {
+            return false;
+        }
+        // shared cache, RFC 7234 section 5.2.2.6 and 3.2
+        if (cacheControl.isPrivate()) {
+            return false;
+        }
+        if (request.header(HEADER_AUTHORIZATION) != null && !cacheControl.isPublic()
+                && !cacheControl.mustRevalidate() && cacheControl.sMaxAgeSeconds() < 0) {
+            return false;
+        }
+        return !"*".equals(response.header(HEADER_VARY));
+    }
+
+    private static Headers varyHeaders(Request request, Headers responseHeaders) {
+        Headers.Builder builder = new Headers.Builder();
+        for (String value : responseHeaders.values(HEADER_VARY)) {
+            for (String name : value.split(",")) {
+                String field = name.trim();
+                if (!field.isEmpty()) {
+                    builder.add(field, String.join(",", request.headers(field)));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static long parseSeconds(String value, long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (NumberFormatException ex) {
+            return defaultValue;
+        }
+    }
+
+    private static void writeHeaders(DataOutputStream out, Headers headers) throws IOException {
+        out.writeInt(headers.size());
+        for (int i = 0; i < headers.size(); i++) {
+            out.writeUTF(headers.name(i));
+            out.writeUTF(headers.value(i));
+        }
+    }
+
+    private static Headers readHeaders(DataInputStream in) throws IOException {
+        Headers.Builder builder = new Headers.Builder();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            builder.addUnsafeNonAscii(in.readUTF(), in.readUTF());
+        }
+        return builder.build();
+    }
+}
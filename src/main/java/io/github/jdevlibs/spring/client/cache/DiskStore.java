@@ -0,0 +1,173 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.cache;
+
+import okio.ByteString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The on-disk tier of {@link HttpResponseCache}, one file per entry named by SHA-256 of the cache key.
+ * When the total size exceeds the limit, the least recently written files are removed.
+ * The entry is written to a temp file, the replace and delete of cache files and the size
+ * are updated under a lock, so concurrent writes and deletes of the same key keep the size exact.
+ * @author supot.jdev
+ * @version 1.0
+ */
+final class DiskStore {
+    private static final String SUFFIX = ".cache";
+    private static final Logger logger = LoggerFactory.getLogger(DiskStore.class);
+
+    private final Path directory;
+    private final long maxBytes;
+    private final AtomicLong size = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    DiskStore(Path directory, long maxBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        for (Path file : files()) {
+            size.addAndGet(Files.size(file));
+        }
+    }
+
+    CacheEntry read(String key) {
+        Path file = file(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            CacheEntry entry = CacheEntry.readFrom(in);
+            return key.equals(entry.key()) ? entry : null;
+        } catch (IOException ex) {
+            logger.debug("Read cache file {} error", file, ex);
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Write the entry to its cache file
+     * @param entry The cache entry
+     * @param current Checked under the lock before the file is replaced, false when the entry is outdated
+     *                (removed or replaced by a newer entry) and must not be stored
+     */
+    void write(CacheEntry entry, BooleanSupplier current) {
+        Path file = file(entry.key());
+        Path temp = null;
+        try {
+            // unique per write, concurrent stores of the same key never share a temp file
+            temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                entry.writeTo(out);
+            }
+            lock.lock();
+            try {
+                if (!current.getAsBoolean()) {
+                    Files.deleteIfExists(temp);
+                    return;
+                }
+                long previous = Files.exists(file) ? Files.size(file) : 0;
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                size.addAndGet(Files.size(file) - previous);
+                trimToSize();
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException ex) {
+            logger.debug("Write cache file {} error", file, ex);
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    void remove(String key) {
+        deleteQuietly(file(key));
+    }
+
+    void clear() {
+        try {
+            for (Path file : files()) {
+                deleteQuietly(file);
+            }
+        } catch (IOException ex) {
+            logger.debug("Clear cache directory {} error", directory, ex);
+        }
+    }
+
+    long size() {
+        return size.get();
+    }
+
+    private void trimToSize() throws IOException {
+        if (size.get() <= maxBytes) {
+            return;
+        }
+        List<Path> files = files();
+        files.sort(Comparator.comparingLong(DiskStore::lastModified));
+        for (Path file : files) {
+            if (size.get() <= maxBytes) {
+                break;
+            }
+            deleteQuietly(file);
+        }
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).collect(Collectors.toList());
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(ByteString.encodeUtf8(key).sha256().hex() + SUFFIX);
+    }
+
+    private void deleteQuietly(Path file) {
+        lock.lock();
+        try {
+            long length = Files.exists(file) ? Files.size(file) : 0;
+            if (Files.deleteIfExists(file) && file.getFileName().toString().endsWith(SUFFIX)) {
+                size.addAndGet(-length);
+            }
+        } catch (IOException ex) {
+            logger.debug("Delete cache file {} error", file, ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.cache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <pre>
+ * HTTP response cache (RFC 7234) of GET responses for {@link io.github.jdevlibs.spring.client.OkHttpClientAdapter}.
+ * The responses are stored in a size bounded in-memory LRU tier and optional on-disk tier.
+ * Fresh responses (max-age, Expires) are served without network, stale responses in the
+ * stale-while-revalidate window are served while revalidate in background, otherwise the request
+ * is sent with If-None-Match / If-Modified-Since and a 304 reuses the cached body.
+ * The cache is shared by all callers of the adapter, so it follows the shared cache rules: the responses
+ * with Cache-Control: private are not stored, the responses of requests with Authorization are stored
+ * only when marked public, must-revalidate or s-maxage, and s-maxage overrides max-age.
+ * The on-disk tier is written by a background thread, the request thread only updates the memory tier.
+ * When the write queue is full the entry is kept in memory only.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class HttpResponseCache {
+    private static final long DEFAULT_MAX_ENTRY_RATIO = 8;
+
+    private final long maxMemoryBytes;
+    private final DiskStore diskStore;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, CacheEntry> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, CacheEntry> pendingWrites = new ConcurrentHashMap<>();
+    private long memoryBytes;
+    private volatile long maxEntryBytes;
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder staleHitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder revalidatedCount = new LongAdder();
+    private final LongAdder networkCount = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    /**
+     * Create in-memory response cache
+     * @param maxMemoryBytes The maximum bytes of in-memory tier
+     */
+    public HttpResponseCache(long maxMemoryBytes) {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxEntryBytes = maxMemoryBytes / DEFAULT_MAX_ENTRY_RATIO;
+        this.diskStore = null;
+    }
+
+    /**
+     * Create in-memory response cache with on-disk tier
+     * @param maxMemoryBytes The maximum bytes of in-memory tier
+     * @param directory The directory of on-disk tier
+     * @param maxDiskBytes The maximum bytes of on-disk tier
+     * @throws IOException If the directory cannot be created or read
+     */
+    public HttpResponseCache(long maxMemoryBytes, Path directory, long maxDiskBytes) throws IOException {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxEntryBytes = maxMemoryBytes / DEFAULT_MAX_ENTRY_RATIO;
+        this.diskStore = new DiskStore(directory, maxDiskBytes);
+    }
+
+    /**
+     * The maximum body size of a cacheable response, default is 1/8 of memory tier.
+     * @param maxEntryBytes The maximum body bytes of entry
+     */
+    public void setMaxEntryBytes(long maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public long getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * Remove all cached responses of memory and disk tier.
+     */
+    public void evictAll() {
+        lock.lock();
+        try {
+            memory.clear();
+            memoryBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+        if (diskStore != null) {
+            pendingWrites.clear();
+            diskStore.clear();
+        }
+    }
+
+    /** @return The number of GET requests handled by the cache */
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    /** @return The number of fresh responses served without network */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /** @return The number of stale responses served while revalidate in background */
+    public long getStaleHitCount() {
+        return staleHitCount.sum();
+    }
+
+    /** @return The number of requests not served from cache */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /** @return The number of conditional requests answered with 304 (Not Modified) */
+    public long getRevalidatedCount() {
+        return revalidatedCount.sum();
+    }
+
+    /** @return The number of requests sent to network, includes conditional and background requests */
+    public long getNetworkCount() {
+        return networkCount.sum();
+    }
+
+    /** @return The number of response body bytes served from cache instead of network */
+    public long getBytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    /** @return The current bytes of in-memory tier */
+    public long getMemorySize() {
+        lock.lock();
+        try {
+            return memoryBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return The current bytes of on-disk tier, 0 when disk tier is not configured */
+    public long getDiskSize() {
+        return diskStore != null ? diskStore.size() : 0;
+    }
+
+    CacheEntry get(String key) {
+        CacheEntry entry;
+        lock.lock();
+        try {
+            entry = memory.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (entry == null && diskStore != null) {
+            entry = pendingWrites.get(key);
+        }
+        if (entry == null && diskStore != null) {
+            entry = diskStore.read(key);
+            if (entry != null) {
+                putMemory(entry);
+            }
+        }
+        return entry;
+    }
+
+    void put(CacheEntry entry) {
+        putMemory(entry);
+        if (diskStore == null) {
+            return;
+        }
+        String key = entry.key();
+        pendingWrites.put(key, entry);
+        try {
+            // only the latest entry of key is written, a removed or replaced entry is skipped
+            DiskWriter.INSTANCE.execute(() -> diskStore.write(entry, () -> pendingWrites.remove(key, entry)));
+        } catch (RejectedExecutionException ex) {
+            pendingWrites.remove(key, entry);
+        }
+    }
+
+    void remove(String key) {
+        lock.lock();
+        try {
+            CacheEntry removed = memory.remove(key);
+            if (removed != null) {
+                memoryBytes -= removed.weight();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (diskStore != null) {
+            pendingWrites.remove(key);
+            diskStore.remove(key);
+        }
+    }
+
+    boolean startRevalidate(String key) {
+        return revalidating.add(key);
+    }
+
+    void endRevalidate(String key) {
+        revalidating.remove(key);
+    }
+
+    void recordRequest() {
+        requestCount.increment();
+    }
+
+    void recordHit(CacheEntry entry, boolean stale) {
+        if (stale) {
+            staleHitCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        bytesSaved.add(entry.bodyLength());
+    }
+
+    void recordMiss() {
+        missCount.increment();
+    }
+
+    void recordRevalidated(CacheEntry entry) {
+        revalidatedCount.increment();
+        bytesSaved.add(entry.bodyLength());
+    }
+
+    void recordNetwork() {
+        networkCount.increment();
+    }
+
+    private void putMemory(CacheEntry entry) {
+        lock.lock();
+        try {
+            CacheEntry previous = memory.put(entry.key(), entry);
+            memoryBytes += entry.weight() - (previous != null ? previous.weight() : 0);
+            Iterator<Map.Entry<String, CacheEntry>> iterator = memory.entrySet().iterator();
+            while (memoryBytes > maxMemoryBytes && iterator.hasNext()) {
+                memoryBytes -= iterator.next().getValue().weight();
+                iterator.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class DiskWriter {
+        private static final int QUEUE_SIZE = 1024;
+        private static final ThreadPoolExecutor INSTANCE = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_SIZE), runnable -> {
+            Thread thread = new Thread(runnable, "HttpResponseCache-disk");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
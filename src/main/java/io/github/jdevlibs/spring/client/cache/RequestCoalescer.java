@@ -0,0 +1,314 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.cache;
+
+import okhttp3.*;
+import okio.BufferedSource;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * Single-flight interceptor, concurrent identical idempotent requests (GET and DELETE without body)
+ * share one in-flight network call. The identity is method + URL (includes query parameters) + all request
+ * headers except the ignored headers (default tracing and request id headers), so requests which differ in
+ * e.g. Accept, Accept-Encoding, Range, If-None-Match, Accept-Language or Authorization never share a response.
+ *
+ * When no other request is waiting for the response, the leader receives the live response without buffering.
+ * Otherwise the response body up to max shared bytes is buffered once and each waiter receives its own copy,
+ * or the same failure of the shared call. The waiters of a larger body send their own call.
+ * When the call of leader is cancelled, a waiter takes over the call instead of failing.
+ *
+ * The requests with {@link CacheBypass} tag (e.g. streamed result or file download) are not coalesced.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class RequestCoalescer implements Interceptor {
+    private static final String METHOD_GET = "GET";
+    private static final String METHOD_DELETE = "DELETE";
+    private static final String[] CREDENTIAL_HEADERS = {"Authorization", "Cookie"};
+    private static final String[] DEFAULT_IGNORED_HEADERS = {"traceparent", "tracestate", "b3", "X-B3-TraceId",
+            "X-B3-SpanId", "X-B3-ParentSpanId", "X-B3-Sampled", "X-Request-Id", "X-Correlation-Id"};
+    private static final long DEFAULT_MAX_SHARED_BYTES = 1024 * 1024;
+    private static final long WAIT_POLL_MILLIS = 20;
+
+    private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private volatile Set<String> ignoredHeaders = headerSet(DEFAULT_IGNORED_HEADERS);
+    private volatile long maxSharedBytes = DEFAULT_MAX_SHARED_BYTES;
+    private final LongAdder callCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * The request headers which are not part of request identity, the headers which differ per request
+     * but do not change the response, e.g. tracing headers. Authorization and Cookie can not be ignored.
+     * @param names The header names
+     */
+    public void setIgnoredHeaders(String... names) {
+        Set<String> headers = headerSet(names);
+        headers.removeAll(Arrays.asList(CREDENTIAL_HEADERS));
+        this.ignoredHeaders = headers;
+    }
+
+    public Set<String> getIgnoredHeaders() {
+        return Collections.unmodifiableSet(ignoredHeaders);
+    }
+
+    /**
+     * The maximum body bytes which is buffered for waiters, default 1 MiB.
+     * @param maxSharedBytes The maximum bytes of shared body
+     */
+    public void setMaxSharedBytes(long maxSharedBytes) {
+        this.maxSharedBytes = maxSharedBytes;
+    }
+
+    public long getMaxSharedBytes() {
+        return maxSharedBytes;
+    }
+
+    /** @return The number of network calls made by a leader request */
+    public long getCallCount() {
+        return callCount.sum();
+    }
+
+    /** @return The number of requests served by another in-flight call */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!isCoalescible(request)) {
+            return chain.proceed(request);
+        }
+
+        String key = key(request);
+        while (true) {
+            Flight flight = new Flight();
+            Flight exists = inFlight.putIfAbsent(key, flight);
+            if (exists == null) {
+                return lead(chain, key, flight);
+            }
+            if (!exists.join()) {
+                continue;
+            }
+
+            Shared shared = await(chain.call(), exists);
+            if (shared == Shared.PROCEED) {
+                return chain.proceed(request);
+            }
+            if (shared != Shared.RETRY) {
+                coalescedCount.increment();
+                return shared.response(request);
+            }
+        }
+    }
+
+    private Response lead(Chain chain, String key, Flight flight) throws IOException {
+        callCount.increment();
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException | RuntimeException ex) {
+            inFlight.remove(key, flight);
+            flight.close();
+            fail(chain.call(), flight, ex);
+            throw ex;
+        }
+
+        inFlight.remove(key, flight);
+        if (flight.close() == 0) {
+            return response;
+        }
+        return share(chain, response, flight);
+    }
+
+    /**
+     * Buffer the response body for waiters, the body larger than max shared bytes is not buffered
+     * and the waiters send their own call.
+     */
+    private Response share(Chain chain, Response response, Flight flight) throws IOException {
+        ResponseBody body = response.body();
+        if (body == null) {
+            Shared shared = new Shared(response, null, null);
+            flight.future.complete(shared);
+            return response;
+        }
+
+        long maxBytes = maxSharedBytes;
+        byte[] bytes;
+        try {
+            BufferedSource source = body.source();
+            if (body.contentLength() > maxBytes || source.request(maxBytes + 1)) {
+                flight.future.complete(Shared.PROCEED);
+                return response;
+            }
+            bytes = source.readByteArray();
+        } catch (IOException | RuntimeException ex) {
+            response.close();
+            fail(chain.call(), flight, ex);
+            throw ex;
+        }
+
+        response.close();
+        Shared shared = new Shared(response.newBuilder().body(null).build(), bytes, body.contentType());
+        flight.future.complete(shared);
+        return shared.response(chain.request());
+    }
+
+    /**
+     * Fail the waiters with failure of leader, the waiters retry when the leader call is cancelled.
+     */
+    private static void fail(Call call, Flight flight, Throwable ex) {
+        if (call.isCanceled()) {
+            flight.future.complete(Shared.RETRY);
+        } else {
+            flight.future.completeExceptionally(ex);
+        }
+    }
+
+    private static boolean isCoalescible(Request request) throws IOException {
+        return request.tag(CacheBypass.class) == null && isIdempotent(request);
+    }
+
+    /**
+     * The identity of request, the header values are length-prefixed so a value can not spoof another header.
+     */
+    private String key(Request request) {
+        Set<String> ignored = ignoredHeaders;
+        StringBuilder key = new StringBuilder(request.method()).append(' ').append(request.url());
+        for (String name : request.headers().names()) {
+            if (ignored.contains(name)) {
+                continue;
+            }
+            key.append('\n').append(name.toLowerCase(Locale.ROOT));
+            for (String value : request.headers(name)) {
+                key.append(':').append(value.length()).append(':').append(value);
+            }
+        }
+        return key.toString();
+    }
+
+    private static Set<String> headerSet(String... names) {
+        Set<String> headers = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        headers.addAll(Arrays.asList(names));
+        return headers;
+    }
+
+    private static boolean isIdempotent(Request request) throws IOException {
+        if (METHOD_GET.equals(request.method())) {
+            return true;
+        }
+        return METHOD_DELETE.equals(request.method())
+                && (request.body() == null || request.body().contentLength() == 0);
+    }
+
+    /**
+     * Wait for the shared call, the wait ends when the call of waiter is cancelled or timed out.
+     */
+    private static Shared await(Call call, Flight flight) throws IOException {
+        try {
+            while (true) {
+                try {
+                    return flight.future.get(WAIT_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException ex) {
+                    if (call.isCanceled()) {
+                        flight.leave();
+                        throw new IOException("Canceled");
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            flight.leave();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for coalesced call");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * The in-flight call of leader, the waiters join until the response headers are received.
+     */
+    private static final class Flight {
+        private final CompletableFuture<Shared> future = new CompletableFuture<>();
+        private int waiters;
+        private boolean closed;
+
+        private synchronized boolean join() {
+            if (closed) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        private synchronized void leave() {
+            waiters--;
+        }
+
+        private synchronized int close() {
+            closed = true;
+            return waiters;
+        }
+    }
+
+    private static final class Shared {
+        private static final Shared PROCEED = new Shared(null, null, null);
+        private static final Shared RETRY = new Shared(null, null, null);
+
+        private final Response template;
+        private final byte[] body;
+        private final MediaType contentType;
+
+        private Shared(Response template, byte[] body, MediaType contentType) {
+            this.template = template;
+            this.body = body;
+            this.contentType = contentType;
+        }
+
+        private Response response(Request request) {
+            Response.Builder builder = template.newBuilder().request(request);
+            if (body != null) {
+                builder.body(ResponseBody.create(body, contentType));
+            }
+            return builder.build();
+        }
+    }
+}
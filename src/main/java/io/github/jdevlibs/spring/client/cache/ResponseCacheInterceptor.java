@@ -0,0 +1,166 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.cache;
+
+import okhttp3.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * <pre>
+ * Application interceptor of {@link HttpResponseCache}.
+ * Only GET requests are cached, a successful unsafe request (POST, PUT, PATCH, DELETE)
+ * invalidates the cached response of the same URL. The request with Cache-Control: no-store
+ * or {@link CacheBypass} tag is sent to network and not stored.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class ResponseCacheInterceptor implements Interceptor {
+    private static final String METHOD_GET = "GET";
+    private static final String METHOD_HEAD = "HEAD";
+    private static final Revalidation REVALIDATION = new Revalidation();
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheInterceptor.class);
+
+    private final HttpResponseCache cache;
+    private volatile OkHttpClient client;
+
+    public ResponseCacheInterceptor(HttpResponseCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * The client for background revalidation of stale-while-revalidate responses,
+     * it should be the client which includes this interceptor.
+     * @param client The http client
+     */
+    public void setClient(OkHttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String key = request.url().toString();
+        if (!METHOD_GET.equals(request.method())) {
+            Response response = chain.proceed(request);
+            if (response.isSuccessful() && !METHOD_HEAD.equals(request.method())) {
+                cache.remove(key);
+            }
+            return response;
+        }
+
+        cache.recordRequest();
+        if (request.cacheControl().noStore() || request.tag(CacheBypass.class) != null) {
+            cache.recordMiss();
+            cache.recordNetwork();
+            return chain.proceed(request);
+        }
+
+        CacheEntry entry = cache.get(key);
+        if (entry != null && !entry.matchVary(request)) {
+            entry = null;
+        }
+
+        boolean revalidation = request.tag(Revalidation.class) != null;
+        long now = System.currentTimeMillis();
+        if (entry != null && !revalidation && !forceNetwork(request)) {
+            if (entry.isFresh(now)) {
+                cache.recordHit(entry, false);
+                return entry.response(request, false);
+            }
+            if (entry.isStaleWhileRevalidate(now) && client != null) {
+                cache.recordHit(entry, true);
+                revalidateAsync(key, request);
+                return entry.response(request, true);
+            }
+        }
+
+        cache.recordNetwork();
+        boolean conditional = entry != null && entry.hasValidator();
+        Response response = chain.proceed(conditional ? entry.conditionalRequest(request) : request);
+        if (conditional && response.code() == 304) {
+            response.close();
+            CacheEntry updated = entry.revalidated(response);
+            cache.put(updated);
+            cache.recordRevalidated(updated);
+            return updated.response(request, false);
+        }
+
+        cache.recordMiss();
+        return store(key, request, response);
+    }
+
+    private Response store(String key, Request request, Response response) throws IOException {
+        ResponseBody body = response.body();
+        if (body == null || !CacheEntry.isCacheable(request, response)) {
+            if (response.isSuccessful()) {
+                cache.remove(key);
+            }
+            return response;
+        }
+
+        long maxEntryBytes = cache.getMaxEntryBytes();
+        if (body.contentLength() > maxEntryBytes) {
+            return response;
+        }
+
+        ResponseBody peek = response.peekBody(maxEntryBytes + 1);
+        byte[] contents = peek.bytes();
+        if (contents.length <= maxEntryBytes) {
+            cache.put(CacheEntry.of(key, request, response, contents));
+        }
+        return response;
+    }
+
+    private void revalidateAsync(String key, Request request) {
+        if (!cache.startRevalidate(key)) {
+            return;
+        }
+
+        // a fresh request, the tags of caller (timings, timeouts) must not follow the background call
+        Request revalidate = new Request.Builder()
+                .url(request.url())
+                .headers(request.headers())
+                .tag(Revalidation.class, REVALIDATION)
+                .build();
+        client.newCall(revalidate).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException ex) {
+                cache.endRevalidate(key);
+                logger.debug("Revalidate {} error", key, ex);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                cache.endRevalidate(key);
+                response.close();
+            }
+        });
+    }
+
+    private static boolean forceNetwork(Request request) {
+        CacheControl cacheControl = request.cacheControl();
+        return cacheControl.noCache() || cacheControl.maxAgeSeconds() == 0;
+    }
+
+    private static final class Revalidation {
+    }
+}
@@ -0,0 +1,425 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.cache;
+
+import io.github.jdevlibs.spring.client.request.GetRequest;
+import io.github.jdevlibs.utils.Validators;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * <pre>
+ * Memoization cache of decoded GET results for {@link io.github.jdevlibs.spring.client.OkHttpClientAdapter}.
+ * Only URLs registered by {@link #addEndpoint(String, Duration, Duration)} are cached, the cache key is
+ * URL + sorted query parameters + selected headers + result type, the names and values are URL-encoded.
+ *
+ * After TTL, the stale value is served while a single background refresh runs, after TTL + stale window
+ * the caller waits for a new load. Concurrent loads of the same key share one call.
+ * The total weight is bounded with least recently used eviction.
+ *
+ * The cached values are shared between callers, they must be treated as read-only.
+ * The requests with credential headers (Authorization, Cookie) are not memoized unless the header
+ * is a key header by {@link #setKeyHeaders(String...)}, so a result is never served to another user.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class ResultCache {
+    private static final List<String> CREDENTIAL_HEADERS = Arrays.asList("Authorization", "Cookie");
+
+    private final long maxWeight;
+    private final ToIntFunction<Object> weigher;
+    private final List<Endpoint> endpoints = new CopyOnWriteArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final ConcurrentMap<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final Set<String> keyHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private long weight;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder staleHitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder refreshCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Create result cache with weight 1 per entry.
+     * @param maxEntries The maximum number of entries
+     */
+    public ResultCache(long maxEntries) {
+        this(maxEntries, value -> 1);
+    }
+
+    /**
+     * Create result cache with custom weight per entry.
+     * @param maxWeight The maximum total weight of entries
+     * @param weigher The weight of cached value
+     */
+    public ResultCache(long maxWeight, ToIntFunction<Object> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Register cacheable endpoint, the longest matched URL prefix is used. The prefix matches on a path
+     * segment boundary, e.g. /api/user matches /api/user and /api/user/1 but not /api/users.
+     * @param urlPrefix The URL prefix of endpoint
+     * @param ttl The time to live before refresh
+     * @param staleWindow The time after TTL that stale value is served while refresh
+     */
+    public void addEndpoint(String urlPrefix, Duration ttl, Duration staleWindow) {
+        endpoints.add(new Endpoint(urlPrefix, ttl.toNanos(), staleWindow != null ? staleWindow.toNanos() : 0));
+    }
+
+    /**
+     * The request headers which are part of cache key, e.g. Authorization, Accept-Language.
+     * The requests with Authorization or Cookie are memoized only when the header is a key header.
+     * @param names The header names
+     */
+    public void setKeyHeaders(String... names) {
+        keyHeaders.clear();
+        keyHeaders.addAll(Arrays.asList(names));
+    }
+
+    /**
+     * Remove all cached values.
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            weight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove cached values of URL prefix, the prefix matches on a path segment boundary.
+     * @param urlPrefix The URL prefix
+     */
+    public void invalidate(String urlPrefix) {
+        lock.lock();
+        try {
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Entry> item = iterator.next();
+                if (matchPrefix(item.getKey(), urlPrefix)) {
+                    weight -= item.getValue().weight;
+                    iterator.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getStaleHitCount() {
+        return staleHitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getRefreshCount() {
+        return refreshCount.sum();
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long getWeight() {
+        lock.lock();
+        try {
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Check the URL is registered as cacheable endpoint.
+     * @param url The request URL
+     * @return true if cacheable
+     */
+    public boolean isCacheable(String url) {
+        return endpoint(url) != null;
+    }
+
+    /**
+     * Check the URL is registered as cacheable endpoint and the credential headers of request are key headers.
+     * @param url The request URL
+     * @param req The request parameters and headers
+     * @return true if cacheable
+     */
+    public boolean isCacheable(String url, GetRequest req) {
+        return isCacheable(url) && !hasCredentials(req);
+    }
+
+    /**
+     * Get cached value or load by loader. A miss is loaded on the caller thread and the concurrent callers
+     * of the same key wait for it, the stale value is refreshed in background by refresher.
+     * @param url The request URL
+     * @param req The request parameters and headers
+     * @param clazz The result class
+     * @param loader The blocking loader of value, run on the caller thread
+     * @param refresher The asynchronous loader of value, used for background refresh
+     * @return The cached or loaded value
+     * @param <T> The type of result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String url, GetRequest req, Class<T> clazz, Supplier<T> loader,
+                     Supplier<CompletableFuture<T>> refresher) {
+        Endpoint endpoint = endpoint(url);
+        if (endpoint == null || hasCredentials(req)) {
+            return loader.get();
+        }
+
+        String key = key(url, req, clazz);
+        long now = System.nanoTime();
+        Entry entry = entry(key);
+        if (entry != null && now < entry.refreshAt) {
+            hitCount.increment();
+            return (T) entry.value;
+        }
+        if (entry != null && now < entry.expireAt) {
+            staleHitCount.increment();
+            if (!loading.containsKey(key)) {
+                refreshCount.increment();
+                load(key, endpoint, (Supplier<CompletableFuture<Object>>) (Supplier<?>) refresher);
+            }
+            return (T) entry.value;
+        }
+
+        missCount.increment();
+        return (T) loadNow(key, endpoint, (Supplier<Object>) loader);
+    }
+
+    /**
+     * Load value on the caller thread, or wait for the load of another caller.
+     */
+    private Object loadNow(String key, Endpoint endpoint, Supplier<Object> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> exists = loading.putIfAbsent(key, future);
+        if (exists != null) {
+            return join(exists);
+        }
+
+        try {
+            Object value = loader.get();
+            if (value != null) {
+                put(key, endpoint, value);
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            loadFailureCount.increment();
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * Load value in background, or return the load of another caller.
+     */
+    private CompletableFuture<Object> load(String key, Endpoint endpoint, Supplier<CompletableFuture<Object>> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> exists = loading.putIfAbsent(key, future);
+        if (exists != null) {
+            return exists;
+        }
+
+        try {
+            loader.get().whenComplete((value, ex) -> {
+                loading.remove(key, future);
+                if (ex != null) {
+                    loadFailureCount.increment();
+                    future.completeExceptionally(ex);
+                } else {
+                    if (value != null) {
+                        put(key, endpoint, value);
+                    }
+                    future.complete(value);
+                }
+            });
+        } catch (RuntimeException ex) {
+            loading.remove(key, future);
+            loadFailureCount.increment();
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    private Entry entry(String key) {
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(String key, Endpoint endpoint, Object value) {
+        long now = System.nanoTime();
+        Entry entry = new Entry(value, weigher.applyAsInt(value), now + endpoint.ttl, now + endpoint.ttl + endpoint.staleWindow);
+        lock.lock();
+        try {
+            Entry previous = entries.put(key, entry);
+            weight += entry.weight - (previous != null ? previous.weight : 0);
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (weight > maxWeight && iterator.hasNext()) {
+                weight -= iterator.next().weight;
+                iterator.remove();
+                evictionCount.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Endpoint endpoint(String url) {
+        Endpoint matched = null;
+        for (Endpoint endpoint : endpoints) {
+            if (matchPrefix(url, endpoint.urlPrefix)
+                    && (matched == null || endpoint.urlPrefix.length() > matched.urlPrefix.length())) {
+                matched = endpoint;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Check the request has credential header which is not a key header.
+     */
+    private boolean hasCredentials(GetRequest req) {
+        if (req == null || Validators.isEmpty(req.getHeaders())) {
+            return false;
+        }
+        for (String name : req.getHeaders().keySet()) {
+            for (String credential : CREDENTIAL_HEADERS) {
+                if (credential.equalsIgnoreCase(name) && !keyHeaders.contains(name)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The URL (or cache key) starts with prefix and the prefix ends on a path segment boundary.
+     */
+    private static boolean matchPrefix(String url, String prefix) {
+        if (!url.startsWith(prefix)) {
+            return false;
+        }
+        if (url.length() == prefix.length() || prefix.endsWith("/")) {
+            return true;
+        }
+        char next = url.charAt(prefix.length());
+        return next == '/' || next == '?' || next == '#' || next == '|';
+    }
+
+    private String key(String url, GetRequest req, Class<?> clazz) {
+        StringBuilder key = new StringBuilder(url);
+        if (req != null && Validators.isNotEmpty(req.getParameters())) {
+            key.append('?');
+            new TreeMap<>(req.getParameters()).forEach((name, value) -> {
+                key.append(encode(name));
+                if (value != null) {
+                    key.append('=').append(encode(value));
+                }
+                key.append('&');
+            });
+        }
+        if (req != null && Validators.isNotEmpty(req.getHeaders()) && !keyHeaders.isEmpty()) {
+            key.append('|');
+            new TreeMap<>(req.getHeaders()).forEach((name, value) -> {
+                if (keyHeaders.contains(name)) {
+                    key.append(encode(name.toLowerCase(Locale.ROOT))).append(':').append(encode(value)).append('|');
+                }
+            });
+        }
+        return key.append('#').append(clazz.getName()).toString();
+    }
+
+    private static String encode(String value) {
+        return value != null ? URLEncoder.encode(value, StandardCharsets.UTF_8) : "";
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    private static final class Endpoint {
+        private final String urlPrefix;
+        private final long ttl;
+        private final long staleWindow;
+
+        private Endpoint(String urlPrefix, long ttl, long staleWindow) {
+            this.urlPrefix = urlPrefix;
+            this.ttl = ttl;
+            this.staleWindow = staleWindow;
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final int weight;
+        private final long refreshAt;
+        private final long expireAt;
+
+        private Entry(Object value, int weight, long refreshAt, long expireAt) {
+            this.value = value;
+            this.weight = weight;
+            this.refreshAt = refreshAt;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.compression;
+
+import okio.Sink;
+import okio.Source;
+
+import java.io.IOException;
+
+/**
+ * <pre>
+ * Codec of http content coding (Content-Encoding / Accept-Encoding) for {@link CompressionInterceptor}.
+ * The built-in codec is {@link GzipCodec}, other codings are plugged in by implementation
+ * with the library of coding, e.g. zstd (com.github.luben:zstd-jni) or br (com.aayushatharva.brotli4j):
+ *
+ *  public Sink encode(Sink sink) { return Okio.sink(new ZstdOutputStream(Okio.buffer(sink).outputStream())); }
+ *  public Source decode(Source source) { return Okio.source(new ZstdInputStream(Okio.buffer(source).inputStream())); }
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public interface CompressionCodec {
+
+    /**
+     * @return The content coding token, e.g. gzip, zstd, br
+     */
+    String getEncoding();
+
+    /**
+     * Wrap the sink for compress the written data, close the returned sink finishes the compression.
+     * @param sink The sink of compressed data
+     * @return The sink of uncompressed data
+     * @throws IOException If create encoder error
+     */
+    Sink encode(Sink sink) throws IOException;
+
+    /**
+     * Wrap the source for decompress the read data.
+     * @param source The source of compressed data
+     * @return The source of uncompressed data
+     * @throws IOException If create decoder error
+     */
+    Source decode(Source source) throws IOException;
+}
@@ -0,0 +1,370 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.compression;
+
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Sink;
+import okio.Source;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * Interceptor of request body compression and negotiated response decompression.
+ *
+ * The request body above threshold is compressed by the request codec and sent with Content-Encoding.
+ * The hosts are opt-in by {@link #addHost(String)}, all hosts when no host is added,
+ * the request overrides by {@link CompressionMode}. The json model up to the body buffer size
+ * ({@link io.github.jdevlibs.spring.ConfigProperties#getJsonBodyBufferSize()}) has known length and is serialized once.
+ * A body of unknown length is written to memory up to the threshold, the body which ends within the threshold
+ * is sent uncompressed with its length.
+ * The body above threshold is compressed while it is written to the network (chunked, without buffering),
+ * the original body is compressed again on retry.
+ * Multipart bodies and bodies with Content-Encoding are sent as is.
+ *
+ * The response codecs are sent as Accept-Encoding in order of preference and the response is decoded
+ * by the codec of Content-Encoding. Without response codecs, OkHttp transparent gzip is used.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class CompressionInterceptor implements Interceptor {
+    public static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+    public static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+    public static final long DEFAULT_THRESHOLD = 1024;
+    private static final String HEADER_CONTENT_LENGTH = "Content-Length";
+    private static final Logger logger = LoggerFactory.getLogger(CompressionInterceptor.class);
+
+    private final CompressionCodec requestCodec;
+    private final long threshold;
+    private final Set<String> hosts = ConcurrentHashMap.newKeySet();
+    private volatile Map<String, CompressionCodec> responseCodecs = Collections.emptyMap();
+    private volatile String acceptEncoding;
+
+    private final LongAdder compressedCount = new LongAdder();
+    private final LongAdder skippedCount = new LongAdder();
+    private final LongAdder uncompressedBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder compressNanos = new LongAdder();
+    private final LongAdder decodedCount = new LongAdder();
+    private final LongAdder encodedResponseBytes = new LongAdder();
+    private final LongAdder decodedResponseBytes = new LongAdder();
+
+    /**
+     * Create interceptor of gzip request compression with default threshold (1 KiB).
+     */
+    public CompressionInterceptor() {
+        this(new GzipCodec(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Create interceptor of request compression.
+     * @param requestCodec The codec of request body
+     * @param threshold The minimum body size in bytes to compress, smaller bodies skip the CPU cost
+     */
+    public CompressionInterceptor(CompressionCodec requestCodec, long threshold) {
+        this.requestCodec = requestCodec;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Enable request compression of host, when no host is added all hosts are enabled.
+     * @param host The host name
+     */
+    public void addHost(String host) {
+        hosts.add(host.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Set codecs of response decoding in order of preference, e.g. zstd, br, gzip.
+     * Include {@link GzipCodec} for keep accept gzip. Empty for OkHttp transparent gzip.
+     * @param codecs The codecs of response
+     */
+    public void setResponseCodecs(CompressionCodec... codecs) {
+        Map<String, CompressionCodec> map = new LinkedHashMap<>();
+        for (CompressionCodec codec : codecs) {
+            map.put(codec.getEncoding().toLowerCase(Locale.ROOT), codec);
+        }
+        this.acceptEncoding = map.isEmpty() ? null : String.join(", ", map.keySet());
+        this.responseCodecs = Collections.unmodifiableMap(map);
+    }
+
+    public long getThreshold() {
+        return threshold;
+    }
+
+    /** @return The number of compressed request bodies */
+    public long getCompressedCount() {
+        return compressedCount.sum();
+    }
+
+    /** @return The number of request bodies which are sent uncompressed by threshold */
+    public long getSkippedCount() {
+        return skippedCount.sum();
+    }
+
+    /** @return The total size of compressed request bodies before compression */
+    public long getUncompressedBytes() {
+        return uncompressedBytes.sum();
+    }
+
+    /** @return The total size of compressed request bodies after compression */
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    /** @return The compressed size per uncompressed size of request bodies, e.g. 0.2 */
+    public double getCompressionRatio() {
+        long uncompressed = uncompressedBytes.sum();
+        return uncompressed > 0 ? (double) compressedBytes.sum() / uncompressed : 0;
+    }
+
+    /** @return The total time of writing compressed request bodies (includes the network write) in milliseconds */
+    public long getCompressMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(compressNanos.sum());
+    }
+
+    /** @return The number of decoded responses */
+    public long getDecodedCount() {
+        return decodedCount.sum();
+    }
+
+    /** @return The encoded size per decoded size of read response bodies */
+    public double getResponseCompressionRatio() {
+        long decoded = decodedResponseBytes.sum();
+        return decoded > 0 ? (double) encodedResponseBytes.sum() / decoded : 0;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = compress(chain.request());
+        String accept = acceptEncoding;
+        if (accept == null || request.header(HEADER_ACCEPT_ENCODING) != null) {
+            return chain.proceed(request);
+        }
+
+        Response response = chain.proceed(request.newBuilder().header(HEADER_ACCEPT_ENCODING, accept).build());
+        return decode(response);
+    }
+
+    private Request compress(Request request) throws IOException {
+        RequestBody body = request.body();
+        if (body == null || body instanceof MultipartBody || body.isDuplex() || body.isOneShot()
+                || request.header(HEADER_CONTENT_ENCODING) != null || !isEnabled(request)) {
+            return request;
+        }
+
+        long length = body.contentLength();
+        if (length >= 0 && length < threshold) {
+            skippedCount.increment();
+            return request;
+        }
+        if (length < 0) {
+            Buffer head = new Buffer();
+            if (!exceedsThreshold(body, head)) {
+                skippedCount.increment();
+                return request.newBuilder()
+                        .method(request.method(), RequestBody.create(head.readByteString(), body.contentType()))
+                        .build();
+            }
+        }
+
+        compressedCount.increment();
+        return request.newBuilder()
+                .method(request.method(), new CompressedBody(request, body))
+                .header(HEADER_CONTENT_ENCODING, requestCodec.getEncoding())
+                .build();
+    }
+
+    /**
+     * Write the body of unknown length up to the threshold, the write stops once the threshold is exceeded.
+     * @return true if the body is larger than threshold, otherwise the head holds the whole body
+     */
+    private boolean exceedsThreshold(RequestBody body, Buffer head) throws IOException {
+        ThresholdSink limit = new ThresholdSink(head, threshold);
+        try (BufferedSink sink = Okio.buffer(limit)) {
+            body.writeTo(sink);
+        } catch (IOException ex) {
+            if (!limit.exceeded) {
+                throw ex;
+            }
+        }
+        return limit.exceeded;
+    }
+
+    private boolean isEnabled(Request request) {
+        CompressionMode mode = request.tag(CompressionMode.class);
+        if (mode == CompressionMode.NEVER) {
+            return false;
+        }
+        return mode == CompressionMode.ALWAYS || hosts.isEmpty() || hosts.contains(request.url().host());
+    }
+
+    private Response decode(Response response) throws IOException {
+        String encoding = response.header(HEADER_CONTENT_ENCODING);
+        ResponseBody body = response.body();
+        if (encoding == null || body == null || response.code() == 204 || response.code() == 304
+                || "HEAD".equals(response.request().method())) {
+            return response;
+        }
+        CompressionCodec codec = responseCodecs.get(encoding.trim().toLowerCase(Locale.ROOT));
+        if (codec == null) {
+            return response;
+        }
+
+        decodedCount.increment();
+        Source source = counting(codec.decode(counting(body.source(), encodedResponseBytes)), decodedResponseBytes);
+        Headers headers = response.headers().newBuilder()
+                .removeAll(HEADER_CONTENT_ENCODING)
+                .removeAll(HEADER_CONTENT_LENGTH)
+                .build();
+        return response.newBuilder()
+                .headers(headers)
+                .body(ResponseBody.create(Okio.buffer(source), body.contentType(), -1L))
+                .build();
+    }
+
+    /**
+     * The request body which is compressed while written to the network, the original body is written again
+     * on retry.
+     */
+    private final class CompressedBody extends RequestBody {
+        private final Request request;
+        private final RequestBody original;
+
+        private CompressedBody(Request request, RequestBody original) {
+            this.request = request;
+            this.original = original;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return original.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            long start = System.nanoTime();
+            CountingSink compressed = new CountingSink(sink, false);
+            CountingSink plain = new CountingSink(requestCodec.encode(compressed), true);
+            try (BufferedSink encoded = Okio.buffer(plain)) {
+                original.writeTo(encoded);
+            }
+            long nanos = System.nanoTime() - start;
+
+            uncompressedBytes.add(plain.count);
+            compressedBytes.add(compressed.count);
+            compressNanos.add(nanos);
+            logger.debug("Compress request {} from {} to {} bytes in {} us", request.url(), plain.count,
+                    compressed.count, TimeUnit.NANOSECONDS.toMicros(nanos));
+        }
+    }
+
+    /**
+     * Count the written bytes, the sink of network is flushed but not closed when the encoder is closed.
+     */
+    private static final class CountingSink extends ForwardingSink {
+        private final boolean closeDelegate;
+        private long count;
+
+        private CountingSink(Sink delegate, boolean closeDelegate) {
+            super(delegate);
+            this.closeDelegate = closeDelegate;
+        }
+
+        @Override
+        public void write(Buffer source, long byteCount) throws IOException {
+            super.write(source, byteCount);
+            count += byteCount;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closeDelegate) {
+                super.close();
+            } else {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Buffer the written bytes up to the threshold, the write above threshold fails and stops the body.
+     */
+    private static final class ThresholdSink extends ForwardingSink {
+        private final Buffer buffer;
+        private final long threshold;
+        private boolean exceeded;
+
+        private ThresholdSink(Buffer buffer, long threshold) {
+            super(buffer);
+            this.buffer = buffer;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void write(Buffer source, long byteCount) throws IOException {
+            if (exceeded || buffer.size() + byteCount >= threshold) {
+                exceeded = true;
+                source.skip(byteCount);
+                throw new IOException("Body exceeds compression threshold");
+            }
+            super.write(source, byteCount);
+        }
+    }
+
+    private static Source counting(Source source, LongAdder counter) {
+        return new ForwardingSource(source) {
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+                long read = super.read(sink, byteCount);
+                if (read > 0) {
+                    counter.add(read);
+                }
+                return read;
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.compression;
+
+/**
+ * <pre>
+ * Request body compression of a request, see {@link io.github.jdevlibs.spring.client.request.Request#setCompression}.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public enum CompressionMode {
+    /** Compress when the host is enabled in {@link CompressionInterceptor} and the body exceeds threshold */
+    AUTO,
+    /** Compress when the body exceeds threshold, regardless of host */
+    ALWAYS,
+    /** Never compress */
+    NEVER
+}
@@ -0,0 +1,70 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.compression;
+
+import okio.GzipSink;
+import okio.GzipSource;
+import okio.Sink;
+import okio.Source;
+
+import java.util.zip.Deflater;
+
+/**
+ * <pre>
+ * The gzip codec by okio, the compression level is 1 (fastest) to 9 (best compression).
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class GzipCodec implements CompressionCodec {
+    public static final String ENCODING = "gzip";
+
+    private final int level;
+
+    /**
+     * Create gzip codec with default compression level (6)
+     */
+    public GzipCodec() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Create gzip codec with compression level
+     * @param level The compression level 1-9, lower is faster
+     */
+    public GzipCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public String getEncoding() {
+        return ENCODING;
+    }
+
+    @Override
+    public Sink encode(Sink sink) {
+        GzipSink gzipSink = new GzipSink(sink);
+        gzipSink.deflater().setLevel(level);
+        return gzipSink;
+    }
+
+    @Override
+    public Source decode(Source source) {
+        return new GzipSource(source);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.connection;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * Pre-warm the connection pool at startup, sends concurrent HEAD requests to each base URL so DNS,
+ * TCP connect and TLS handshake are done before the first real call.
+ * The warm-up calls skip the application interceptors (cache, retry, limiters) of the adapter.
+ * The pool keeps at most maxIdleConnections of {@link okhttp3.ConnectionPool} (default 5) idle connections.
+ * The pool is warm when at least one call of every base URL received a response (any status).
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class ConnectionWarmer {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionWarmer.class);
+
+    private final List<String> urls;
+    private final int connectionsPerHost;
+    private final Duration timeout;
+    private final LongAdder failedCount = new LongAdder();
+    private final Set<String> warmedUrls = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Create warmer of 2 connections per base URL.
+     * @param urls The base URLs
+     */
+    public ConnectionWarmer(List<String> urls) {
+        this(urls, 2, Duration.ofSeconds(10));
+    }
+
+    /**
+     * Create warmer
+     * @param urls The base URLs
+     * @param connectionsPerHost The number of connections per base URL
+     * @param timeout The timeout of warm-up call
+     */
+    public ConnectionWarmer(List<String> urls, int connectionsPerHost, Duration timeout) {
+        this.urls = Collections.unmodifiableList(new ArrayList<>(urls));
+        this.connectionsPerHost = Math.max(1, connectionsPerHost);
+        this.timeout = timeout;
+    }
+
+    public List<String> getUrls() {
+        return urls;
+    }
+
+    public int getConnectionsPerHost() {
+        return connectionsPerHost;
+    }
+
+    /** @return The number of failed warm-up calls */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * @return true if at least one warm-up call of every base URL succeeded
+     */
+    public boolean isWarm() {
+        return warmedUrls.containsAll(urls);
+    }
+
+    /**
+     * @return The base URLs without a successful warm-up call, e.g. DNS or TLS error
+     */
+    public Set<String> getColdUrls() {
+        Set<String> cold = new LinkedHashSet<>(urls);
+        cold.removeAll(warmedUrls);
+        return cold;
+    }
+
+    /**
+     * Warm the connection pool of client
+     * @param client The client which shares the connection pool
+     * @return The future completed when all warm-up calls are done, failed calls are logged only
+     */
+    public CompletableFuture<Void> warm(OkHttpClient client) {
+        warmedUrls.clear();
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(connectionsPerHost);
+        dispatcher.setMaxRequests(Math.max(1, urls.size() * connectionsPerHost));
+        OkHttpClient.Builder builder = client.newBuilder()
+                .dispatcher(dispatcher)
+                .callTimeout(timeout);
+        builder.interceptors().clear();
+        OkHttpClient warmClient = builder.build();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (String url : urls) {
+            for (int i = 0; i < connectionsPerHost; i++) {
+                futures.add(head(warmClient, url));
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).whenComplete((value, ex) -> {
+            dispatcher.executorService().shutdown();
+            logger.info("Connection pool warmed, connections: {}, failed: {}",
+                    client.connectionPool().connectionCount(), failedCount.sum());
+        });
+    }
+
+    private CompletableFuture<Void> head(OkHttpClient client, String url) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Request request;
+        try {
+            request = new Request.Builder().url(url).head().build();
+        } catch (IllegalArgumentException ex) {
+            failedCount.increment();
+            logger.warn("Invalid warm-up URL: {}", url);
+            future.complete(null);
+            return future;
+        }
+
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException ex) {
+                failedCount.increment();
+                logger.warn("Warm-up {} error: {}", url, ex.getMessage());
+                future.complete(null);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+                warmedUrls.add(url);
+                future.complete(null);
+            }
+        });
+        return future;
+    }
+}
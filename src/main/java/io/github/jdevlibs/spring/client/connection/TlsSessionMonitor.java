@@ -0,0 +1,140 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.connection;
+
+import io.github.jdevlibs.spring.client.metrics.ForwardingEventListener;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * Configure and observe TLS session resumption of the client.
+ * The client session cache (size and timeout) is configured on the {@link SSLSessionContext} of the first
+ * TLS connection, so the SSL socket factory of the injected OkHttpClient is kept.
+ * A new connection is counted as resumed when its session was created before the connect started,
+ * TLS 1.3 resumption by PSK creates a new session and is counted as full handshake.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class TlsSessionMonitor {
+    private final int sessionCacheSize;
+    private final Duration sessionTimeout;
+    private final LongAdder handshakeCount = new LongAdder();
+    private final LongAdder resumedCount = new LongAdder();
+    private volatile SSLSessionContext sessionContext;
+
+    /**
+     * Create monitor which keeps the session cache settings of JDK.
+     */
+    public TlsSessionMonitor() {
+        this(0, null);
+    }
+
+    /**
+     * Create monitor
+     * @param sessionCacheSize The maximum sessions of client session cache, 0 for JDK default
+     * @param sessionTimeout The timeout of cached session, null for JDK default
+     */
+    public TlsSessionMonitor(int sessionCacheSize, Duration sessionTimeout) {
+        this.sessionCacheSize = sessionCacheSize;
+        this.sessionTimeout = sessionTimeout;
+    }
+
+    /** @return The number of new TLS connections */
+    public long getHandshakeCount() {
+        return handshakeCount.sum();
+    }
+
+    /** @return The number of new TLS connections which resumed a cached session */
+    public long getResumedCount() {
+        return resumedCount.sum();
+    }
+
+    /** @return The number of sessions in the client session cache */
+    public int getSessionCount() {
+        SSLSessionContext context = sessionContext;
+        return context != null ? Collections.list(context.getIds()).size() : 0;
+    }
+
+    /**
+     * Create factory of listener, the listener of base factory is kept as delegate.
+     * @param baseFactory The event listener factory of base client
+     * @return The event listener factory
+     */
+    public EventListener.Factory factory(EventListener.Factory baseFactory) {
+        return call -> new Listener(baseFactory.create(call));
+    }
+
+    private void onConnected(SSLSession session, long connectStartMillis) {
+        SSLSessionContext context = session.getSessionContext();
+        if (context != null && context != sessionContext) {
+            if (sessionCacheSize > 0) {
+                context.setSessionCacheSize(sessionCacheSize);
+            }
+            if (sessionTimeout != null) {
+                context.setSessionTimeout((int) sessionTimeout.getSeconds());
+            }
+            sessionContext = context;
+        }
+
+        handshakeCount.increment();
+        if (session.getCreationTime() < connectStartMillis) {
+            resumedCount.increment();
+        }
+    }
+
+    private final class Listener extends ForwardingEventListener {
+        private long connectStartMillis;
+
+        private Listener(EventListener delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            super.connectStart(call, inetSocketAddress, proxy);
+            connectStartMillis = System.currentTimeMillis();
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            super.connectionAcquired(call, connection);
+            if (connectStartMillis == 0) {
+                return;
+            }
+
+            Socket socket = connection.socket();
+            if (socket instanceof SSLSocket) {
+                onConnected(((SSLSocket) socket).getSession(), connectStartMillis);
+            }
+            connectStartMillis = 0;
+        }
+    }
+}
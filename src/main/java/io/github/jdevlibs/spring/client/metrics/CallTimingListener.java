@@ -0,0 +1,219 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.metrics;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Interceptor;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * <pre>
+ * Event listener which captures phases of the call to the {@link CallTimings} tag of request.
+ * The listener has no per-call state, the call without the tag is not captured.
+ * The dispatcher queue time is captured by {@link #interceptor()}, OkHttp fires callStart before
+ * an async call is queued.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class CallTimingListener extends ForwardingEventListener {
+    private static final Interceptor CHAIN_START = chain -> {
+        CallTimings timings = chain.request().tag(CallTimings.class);
+        if (timings != null) {
+            timings.chainStart();
+        }
+        return chain.proceed(chain.request());
+    };
+
+    public CallTimingListener(EventListener delegate) {
+        super(delegate);
+    }
+
+    /**
+     * Create factory of listener, the listener of base factory is kept as delegate.
+     * @param baseFactory The event listener factory of base client
+     * @return The event listener factory
+     */
+    public static EventListener.Factory factory(EventListener.Factory baseFactory) {
+        CallTimingListener shared = new CallTimingListener(EventListener.NONE);
+        return call -> {
+            EventListener delegate = baseFactory.create(call);
+            return delegate == EventListener.NONE ? shared : new CallTimingListener(delegate);
+        };
+    }
+
+    /**
+     * The interceptor which marks the start of interceptor chain (the end of dispatcher queue),
+     * it must be the first application interceptor of client.
+     * @return The interceptor
+     */
+    public static Interceptor interceptor() {
+        return CHAIN_START;
+    }
+
+    @Override
+    public void callStart(Call call) {
+        super.callStart(call);
+        CallTimings timings = timings(call);
+        if (timings != null) {
+            timings.callStart(call.request().method(), EndpointTag.endpoint(call.request()));
+        }
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        super.dnsStart(call, domainName);
+        CallTimings timings = timings(call);
+        if (timings != null) {
+            timings.dnsStart();
+        }
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        super.dnsEnd(call, domainName, inetAddressList);
+        CallTimings timings = timings(call);
+        if (timings != null) {
+            timings.dnsEnd();
+        }
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        super.connectStart(call, inetSocketAddress, proxy);
+        CallTimings timings = timings(call);
+        if (timings != null) {
+            timings.connectStart();
+        }
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        super.secureConnectStart(call);
+        CallTimings timings = timings(call);
+        if (timings != null) {
+            timings.secureConnectStart();
+        }
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        super.secureConnectEnd(call, handshake);
+        CallTimings timings = timings(call);
+        if (timings != null) {
+            timings.secureConnectEnd();
+        }
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        super.connectEnd(call, inetSocketAddress, proxy, protocol);
+        CallTimings timings = timings(call);
+        if (timings != null) {
+            timings.connectEnd();
+        }
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol,
+                              IOException ioe) {
+        super.connectFailed(call, inetSocketAddress, proxy, protocol, ioe);
+        CallTimings timings = timings(call);
+        if (timings != null) {
+            timings.connectEnd();
+        }
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        super.connectionAcquired(call, connection);
+        CallTimings timings = timings(call);
+        if (timings != null) {
+            timings.connectionAcquired();
+        }
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        super.requestHeadersStart(call);
+        CallTimings timings = timings(call);
+        if (timings != null) {
+            timings.requestStart();
+        }
+    }
+
+    @Override
+    public void requestHeadersEnd(Call call, Request request) {
+        super.requestHeadersEnd(call, request);
+        CallTimings timings = timings(call);
+        if (timings != null) {
+            timings.requestEnd();
+        }
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        super.requestBodyEnd(call, byteCount);
+        CallTimings timings = timings(call);
+        if (timings != null) {
+            timings.requestEnd();
+        }
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        super.responseHeadersEnd(call, response);
+        CallTimings timings = timings(call);
+        if (timings != null) {
+            timings.responseHeadersEnd();
+        }
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        super.callEnd(call);
+        CallTimings timings = timings(call);
+        if (timings != null) {
+            timings.callEnd();
+        }
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        super.callFailed(call, ioe);
+        CallTimings timings = timings(call);
+        if (timings != null) {
+            timings.callEnd();
+        }
+    }
+
+    private static CallTimings timings(Call call) {
+        return call.request().tag(CallTimings.class);
+    }
+}
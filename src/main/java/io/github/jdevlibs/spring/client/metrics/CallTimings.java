@@ -0,0 +1,235 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.metrics;
+
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Timing breakdown of a single call, captured by {@link CallTimingListener} and the adapter.
+ * The phases of retries and follow-ups are accumulated.
+ *  - queue    : wait in the dispatcher queue of async call, from call start until the interceptor chain
+ *               starts ({@link CallTimingListener#interceptor()})
+ *  - acquire  : wait for a connection excludes dns and connect (interceptors, limiters, pool)
+ *  - dns, connect (includes tls), tls
+ *  - write    : write request headers and body
+ *  - server   : from request written until response headers received (time to first byte)
+ *  - bodyRead : wait for response body from network
+ *  - decode   : JSON decode of response body excludes body read
+ * The instance is updated by one thread at a time, read it after the call completed.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class CallTimings {
+    private final long createdAt = System.nanoTime();
+    private String method;
+    private String endpoint;
+    private int attempts;
+
+    private long callStartAt;
+    private long callEndAt;
+    private long dnsStartAt;
+    private long connectStartAt;
+    private long secureConnectStartAt;
+    private long requestStartAt;
+    private long requestEndAt;
+    private long acquireFrom;
+    private long acquireBase;
+
+    private long queueNanos;
+    private long acquireNanos;
+    private long dnsNanos;
+    private long connectNanos;
+    private long tlsNanos;
+    private long writeNanos;
+    private long serverNanos;
+    private long bodyReadNanos;
+    private long decodeNanos;
+
+    void callStart(String method, String endpoint) {
+        this.method = method;
+        this.endpoint = endpoint;
+        callStartAt = System.nanoTime();
+        acquireFrom = callStartAt;
+    }
+
+    void chainStart() {
+        if (callStartAt > 0 && queueNanos == 0) {
+            long now = System.nanoTime();
+            queueNanos = now - callStartAt;
+            acquireFrom = now;
+        }
+    }
+
+    void dnsStart() {
+        dnsStartAt = System.nanoTime();
+    }
+
+    void dnsEnd() {
+        dnsNanos += System.nanoTime() - dnsStartAt;
+    }
+
+    void connectStart() {
+        connectStartAt = System.nanoTime();
+    }
+
+    void secureConnectStart() {
+        secureConnectStartAt = System.nanoTime();
+    }
+
+    void secureConnectEnd() {
+        tlsNanos += System.nanoTime() - secureConnectStartAt;
+    }
+
+    void connectEnd() {
+        connectNanos += System.nanoTime() - connectStartAt;
+    }
+
+    void connectionAcquired() {
+        long network = dnsNanos + connectNanos - acquireBase;
+        acquireNanos += Math.max(0, System.nanoTime() - acquireFrom - network);
+    }
+
+    void requestStart() {
+        attempts++;
+        requestStartAt = System.nanoTime();
+    }
+
+    void requestEnd() {
+        long now = System.nanoTime();
+        writeNanos += now - Math.max(requestStartAt, requestEndAt);
+        requestEndAt = now;
+    }
+
+    void responseHeadersEnd() {
+        long now = System.nanoTime();
+        serverNanos += now - requestEndAt;
+        acquireFrom = now;
+        acquireBase = dnsNanos + connectNanos;
+    }
+
+    void callEnd() {
+        if (callEndAt == 0) {
+            callEndAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Wrap the response body source for capture body read time.
+     * @param source The response body source
+     * @return The timed source
+     */
+    public BufferedSource timed(BufferedSource source) {
+        return Okio.buffer(new ForwardingSource(source) {
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+                long start = System.nanoTime();
+                try {
+                    return super.read(sink, byteCount);
+                } finally {
+                    bodyReadNanos += System.nanoTime() - start;
+                }
+            }
+        });
+    }
+
+    /**
+     * Set decode time of the response body
+     * @param nanos The time of decode includes body read
+     */
+    public void decoded(long nanos) {
+        decodeNanos = Math.max(0, nanos - bodyReadNanos);
+        callEnd();
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /** @return The number of requests sent includes retries and follow-ups */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public long getQueueNanos() {
+        return queueNanos;
+    }
+
+    public long getAcquireNanos() {
+        return acquireNanos;
+    }
+
+    public long getDnsNanos() {
+        return dnsNanos;
+    }
+
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    public long getTlsNanos() {
+        return tlsNanos;
+    }
+
+    public long getWriteNanos() {
+        return writeNanos;
+    }
+
+    /** @return The time to first byte of response */
+    public long getServerNanos() {
+        return serverNanos;
+    }
+
+    public long getBodyReadNanos() {
+        return bodyReadNanos;
+    }
+
+    public long getDecodeNanos() {
+        return decodeNanos;
+    }
+
+    /** @return The total time from request created until the call completed */
+    public long getTotalNanos() {
+        return (callEndAt > 0 ? callEndAt : System.nanoTime()) - createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "method=" + method + " endpoint=" + endpoint + " attempts=" + attempts
+                + " total=" + millis(getTotalNanos()) + " queue=" + millis(queueNanos)
+                + " acquire=" + millis(acquireNanos) + " dns=" + millis(dnsNanos)
+                + " connect=" + millis(connectNanos) + " tls=" + millis(tlsNanos)
+                + " write=" + millis(writeNanos) + " server=" + millis(serverNanos)
+                + " bodyRead=" + millis(bodyReadNanos) + " decode=" + millis(decodeNanos);
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3fms", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
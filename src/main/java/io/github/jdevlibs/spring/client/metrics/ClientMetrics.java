@@ -0,0 +1,61 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.metrics;
+
+import io.github.jdevlibs.spring.exception.ClientApiException.ClientApiErrorCodes;
+import okhttp3.HttpUrl;
+
+/**
+ * <pre>
+ * Metrics SPI of {@link io.github.jdevlibs.spring.client.OkHttpClientAdapter}.
+ * The calls are recorded by the adapter, the bytes by OkHttp event listener.
+ * The methods are called on the caller or OkHttp dispatcher threads, the implementation must be
+ * thread-safe and non-blocking. {@link ClientMetricsRegistry} is the default implementation.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public interface ClientMetrics {
+
+    /**
+     * Record completed call
+     * @param endpoint The endpoint key, see {@link #endpoint(HttpUrl)}
+     * @param nanos The latency of call until the response body is read
+     * @param httpCode The http status code, 0 when no response
+     * @param error The error code, null for successful call
+     */
+    void recordCall(String endpoint, long nanos, int httpCode, ClientApiErrorCodes error);
+
+    /**
+     * Record bytes of request and response body
+     * @param endpoint The endpoint key, see {@link #endpoint(HttpUrl)}
+     * @param sent The bytes of request body
+     * @param received The bytes of response body
+     */
+    void recordBytes(String endpoint, long sent, long received);
+
+    /**
+     * Get endpoint key of URL, scheme://host:port/path without query.
+     * The adapter builds the key once per call by {@link EndpointTag}.
+     * @param url The request URL
+     * @return The endpoint key
+     */
+    static String endpoint(HttpUrl url) {
+        return url.scheme() + "://" + url.host() + ':' + url.port() + url.encodedPath();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.metrics;
+
+import io.github.jdevlibs.spring.exception.ClientApiException.ClientApiErrorCodes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <pre>
+ * Default in-memory {@link ClientMetrics}, lock-free counters and latency histogram per endpoint.
+ * The endpoints above max endpoints (e.g. path with id) are merged to the key of host.
+ * Export the {@link #snapshot()} periodically to any metrics registry.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class ClientMetricsRegistry implements ClientMetrics {
+    private final int maxEndpoints;
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    public ClientMetricsRegistry() {
+        this(1000);
+    }
+
+    /**
+     * @param maxEndpoints The maximum number of endpoints
+     */
+    public ClientMetricsRegistry(int maxEndpoints) {
+        this.maxEndpoints = maxEndpoints;
+    }
+
+    @Override
+    public void recordCall(String endpoint, long nanos, int httpCode, ClientApiErrorCodes error) {
+        metrics(endpoint).recordCall(nanos, error);
+    }
+
+    @Override
+    public void recordBytes(String endpoint, long sent, long received) {
+        metrics(endpoint).recordBytes(sent, received);
+    }
+
+    public Collection<EndpointMetrics> getEndpoints() {
+        return Collections.unmodifiableCollection(endpoints.values());
+    }
+
+    /**
+     * @return The snapshot of all endpoints
+     */
+    public List<EndpointSnapshot> snapshot() {
+        List<EndpointSnapshot> snapshots = new ArrayList<>(endpoints.size());
+        endpoints.values().forEach(metrics -> snapshots.add(metrics.snapshot()));
+        return snapshots;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    private EndpointMetrics metrics(String endpoint) {
+        EndpointMetrics metrics = endpoints.get(endpoint);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (endpoints.size() >= maxEndpoints) {
+            int path = endpoint.indexOf('/', endpoint.indexOf("://") + 3);
+            endpoint = path > 0 ? endpoint.substring(0, path) : endpoint;
+        }
+        return endpoints.computeIfAbsent(endpoint, EndpointMetrics::new);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.metrics;
+
+import io.github.jdevlibs.spring.exception.ClientApiException.ClientApiErrorCodes;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * Lock-free counters of an endpoint, record does not allocate.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class EndpointMetrics {
+    private static final ClientApiErrorCodes[] ERRORS = ClientApiErrorCodes.values();
+
+    private final String endpoint;
+    private final LongAdder callCount = new LongAdder();
+    private final AtomicLongArray errorCounts = new AtomicLongArray(ERRORS.length);
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public EndpointMetrics(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    void recordCall(long nanos, ClientApiErrorCodes error) {
+        callCount.increment();
+        if (error != null) {
+            errorCounts.incrementAndGet(error.ordinal());
+        }
+        latency.record(nanos);
+    }
+
+    void recordBytes(long sent, long received) {
+        if (sent > 0) {
+            bytesSent.add(sent);
+        }
+        if (received > 0) {
+            bytesReceived.add(received);
+        }
+    }
+
+    /**
+     * @return The point-in-time snapshot of counters
+     */
+    public EndpointSnapshot snapshot() {
+        Map<ClientApiErrorCodes, Long> errors = new EnumMap<>(ClientApiErrorCodes.class);
+        long errorCount = 0;
+        for (int i = 0; i < ERRORS.length; i++) {
+            long count = errorCounts.get(i);
+            if (count > 0) {
+                errors.put(ERRORS[i], count);
+                errorCount += count;
+            }
+        }
+        return new EndpointSnapshot(endpoint, callCount.sum(), errorCount, Collections.unmodifiableMap(errors),
+                bytesSent.sum(), bytesReceived.sum(), latency.getMean(), latency.getPercentile(0.5),
+                latency.getPercentile(0.95), latency.getPercentile(0.99));
+    }
+}
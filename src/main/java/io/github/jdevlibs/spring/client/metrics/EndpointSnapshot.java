@@ -0,0 +1,61 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.metrics;
+
+import io.github.jdevlibs.spring.exception.ClientApiException.ClientApiErrorCodes;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * <pre>
+ * Immutable snapshot of endpoint metrics for export to a metrics registry, latency in microseconds.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+@Getter
+@ToString
+public class EndpointSnapshot {
+    private final String endpoint;
+    private final long callCount;
+    private final long errorCount;
+    private final Map<ClientApiErrorCodes, Long> errors;
+    private final long bytesSent;
+    private final long bytesReceived;
+    private final double meanMicros;
+    private final long p50Micros;
+    private final long p95Micros;
+    private final long p99Micros;
+
+    public EndpointSnapshot(String endpoint, long callCount, long errorCount, Map<ClientApiErrorCodes, Long> errors,
+                            long bytesSent, long bytesReceived, double meanMicros, long p50Micros,
+                            long p95Micros, long p99Micros) {
+        this.endpoint = endpoint;
+        this.callCount = callCount;
+        this.errorCount = errorCount;
+        this.errors = errors;
+        this.bytesSent = bytesSent;
+        this.bytesReceived = bytesReceived;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p95Micros = p95Micros;
+        this.p99Micros = p99Micros;
+    }
+}
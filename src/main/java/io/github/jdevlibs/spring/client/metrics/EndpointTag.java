@@ -0,0 +1,51 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.metrics;
+
+import okhttp3.Request;
+
+/**
+ * <pre>
+ * Request tag which holds the endpoint key of call, the key is built once on first use and shared by
+ * the adapter and event listeners of the call, so recording metrics does not build the key for every event.
+ * Usage: requestBuilder.tag(EndpointTag.class, new EndpointTag())
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public final class EndpointTag {
+    private volatile String endpoint;
+
+    /**
+     * Get endpoint key of request, from the tag or built from URL when the request is not tagged.
+     * @param request The http request
+     * @return The endpoint key, see {@link ClientMetrics#endpoint(okhttp3.HttpUrl)}
+     */
+    public static String endpoint(Request request) {
+        EndpointTag tag = request.tag(EndpointTag.class);
+        if (tag == null) {
+            return ClientMetrics.endpoint(request.url());
+        }
+        String value = tag.endpoint;
+        if (value == null) {
+            value = ClientMetrics.endpoint(request.url());
+            tag.endpoint = value;
+        }
+        return value;
+    }
+}
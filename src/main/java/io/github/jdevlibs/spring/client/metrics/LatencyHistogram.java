@@ -0,0 +1,128 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * Lock-free log-linear latency histogram in microseconds.
+ * Values below 16 micros are exact, above that each power of two range is split to 8 sub buckets,
+ * so the relative error of percentile is below 12.5%. Record is one atomic increment of bucket and
+ * two LongAdder updates (count, sum) without lock or allocation, the count and sum are not updated atomically
+ * with the bucket, so a concurrent read may see them one sample apart.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class LatencyHistogram {
+    private static final int LINEAR_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MIN_EXPONENT = 4;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = LINEAR_BUCKETS + (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Record latency
+     * @param nanos The latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        buckets.incrementAndGet(index(micros));
+        count.increment();
+        sum.add(micros);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return The mean latency in microseconds
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : sum.sum() / (double) n;
+    }
+
+    /**
+     * Get latency at percentile, the value is upper bound of the bucket.
+     * @param percentile The percentile between 0 and 1, e.g. 0.95
+     * @return The latency in microseconds, 0 when no sample
+     */
+    public long getPercentile(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    /**
+     * Clear all samples.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+    }
+
+    private static int index(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = Math.min(MAX_EXPONENT, 63 - Long.numberOfLeadingZeros(micros));
+        int sub = (int) ((micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        if (exponent == MAX_EXPONENT && micros >= (1L << (MAX_EXPONENT + 1))) {
+            sub = SUB_BUCKETS - 1;
+        }
+        return LINEAR_BUCKETS + (exponent - MIN_EXPONENT) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = MIN_EXPONENT + (index - LINEAR_BUCKETS) / SUB_BUCKETS;
+        int sub = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
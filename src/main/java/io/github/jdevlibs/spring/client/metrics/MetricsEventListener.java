@@ -0,0 +1,64 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.metrics;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+
+/**
+ * <pre>
+ * Event listener which records bytes of request and response body to {@link ClientMetrics}.
+ * The listener has no per-call state, one instance is shared by all calls without delegate.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class MetricsEventListener extends ForwardingEventListener {
+    private final ClientMetrics metrics;
+
+    public MetricsEventListener(ClientMetrics metrics, EventListener delegate) {
+        super(delegate);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Create factory of listener, the listener of base factory is kept as delegate.
+     * @param metrics The client metrics
+     * @param baseFactory The event listener factory of base client
+     * @return The event listener factory
+     */
+    public static EventListener.Factory factory(ClientMetrics metrics, EventListener.Factory baseFactory) {
+        MetricsEventListener shared = new MetricsEventListener(metrics, EventListener.NONE);
+        return call -> {
+            EventListener delegate = baseFactory.create(call);
+            return delegate == EventListener.NONE ? shared : new MetricsEventListener(metrics, delegate);
+        };
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        super.requestBodyEnd(call, byteCount);
+        metrics.recordBytes(EndpointTag.endpoint(call.request()), byteCount, 0);
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        super.responseBodyEnd(call, byteCount);
+        metrics.recordBytes(EndpointTag.endpoint(call.request()), 0, byteCount);
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.reactive;
+
+import io.github.jdevlibs.spring.client.OkHttpClientAdapter;
+import io.github.jdevlibs.spring.client.request.DeleteRequest;
+import io.github.jdevlibs.spring.client.request.FormRequest;
+import io.github.jdevlibs.spring.client.request.GetRequest;
+import io.github.jdevlibs.spring.client.request.JsonRequest;
+import io.github.jdevlibs.spring.client.request.MultipartRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * <pre>
+ * Reactive (Reactor) facade of {@link OkHttpClientAdapter} for WebFlux services, requires reactor-core
+ * in classpath. The calls are executed by {@link okhttp3.Call#enqueue(okhttp3.Callback)} of adapter,
+ * so retry, cache, limiters and hedging are applied and the subscriber thread is never blocked.
+ *
+ * The call starts on subscribe and cancel of subscription cancels the http call.
+ * The {@link Flux} results decode the array elements incrementally by downstream demand,
+ * the response body is read on the OkHttp dispatcher threads only.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class ReactiveClientAdapter {
+    private final OkHttpClientAdapter adapter;
+
+    public ReactiveClientAdapter(OkHttpClientAdapter adapter) {
+        this.adapter = adapter;
+    }
+
+    public OkHttpClientAdapter getAdapter() {
+        return adapter;
+    }
+
+    /**
+     * Call service API with POST by json body.
+     * @param url Service API URL
+     * @param jsonRequest The request json model
+     * @return The empty mono of call
+     */
+    public Mono<Void> post(String url, JsonRequest<?> jsonRequest) {
+        return mono(() -> adapter.postAsync(url, jsonRequest));
+    }
+
+    /**
+     * Call service API with POST by json body.
+     * @param url Service API URL
+     * @param jsonRequest The request json model
+     * @param clazz The response model class
+     * @return The mono of result, empty when response has no body
+     * @param <T> The type of response class
+     */
+    public <T> Mono<T> post(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
+        return mono(() -> adapter.postAsync(url, jsonRequest, clazz));
+    }
+
+    /**
+     * Call service API with POST by json body return result as flux of array elements.
+     * @param url Service API URL
+     * @param jsonRequest The request json model
+     * @param clazz The response element class
+     * @return The flux of elements
+     * @param <T> The type of response class
+     */
+    public <T> Flux<T> postResultAsFlux(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
+        return flux(() -> adapter.postResultAsStreamAsync(url, jsonRequest, clazz));
+    }
+
+    /**
+     * Call service API with PUT by json body.
+     * @param url Service API URL
+     * @param jsonRequest The request json model
+     * @return The empty mono of call
+     */
+    public Mono<Void> put(String url, JsonRequest<?> jsonRequest) {
+        return mono(() -> adapter.putAsync(url, jsonRequest));
+    }
+
+    /**
+     * Call service API with PUT by json body.
+     * @param url Service API URL
+     * @param jsonRequest The request json model
+     * @param clazz The response model class
+     * @return The mono of result, empty when response has no body
+     * @param <T> The type of response class
+     */
+    public <T> Mono<T> put(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
+        return mono(() -> adapter.putAsync(url, jsonRequest, clazz));
+    }
+
+    /**
+     * Call service API with PUT by json body return result as flux of array elements.
+     * @param url Service API URL
+     * @param jsonRequest The request json model
+     * @param clazz The response element class
+     * @return The flux of elements
+     * @param <T> The type of response class
+     */
+    public <T> Flux<T> putResultAsFlux(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
+        return flux(() -> adapter.putResultAsStreamAsync(url, jsonRequest, clazz));
+    }
+
+    /**
+     * Call service API with POST by form.
+     * @param url   Service API URL
+     * @param req   The Form request object includes [fields, headers]
+     * @param clazz The response model class
+     * @return The mono of result, empty when response has no body
+     * @param <T>   The type of response class
+     */
+    public <T> Mono<T> postForm(String url, FormRequest req, Class<T> clazz) {
+        return mono(() -> adapter.postFormAsync(url, req, clazz));
+    }
+
+    /**
+     * Call service API with POST by form return result as flux of array elements.
+     * @param url   Service API URL
+     * @param req   The Form request object includes [fields, headers]
+     * @param clazz The response element class
+     * @return The flux of elements
+     * @param <T>   The type of response class
+     */
+    public <T> Flux<T> postFormResultAsFlux(String url, FormRequest req, Class<T> clazz) {
+        return flux(() -> adapter.postFormResultAsStreamAsync(url, req, clazz));
+    }
+
+    /**
+     * Call service API with POST by multipart form.
+     * @param url   Service API URL
+     * @param req   The multipart request object includes [fields, files, headers]
+     * @param clazz The response model class
+     * @return The mono of result, empty when response has no body
+     * @param <T>   The type of response class
+     */
+    public <T> Mono<T> postMultiPart(String url, MultipartRequest req, Class<T> clazz) {
+        return mono(() -> adapter.postMultiPartAsync(url, req, clazz));
+    }
+
+    /**
+     * Call service API with http (GET) method.
+     * @param url   Service API URL
+     * @param clazz The response model class
+     * @return The mono of result, empty when response has no body
+     * @param <T>   The type of response class
+     */
+    public <T> Mono<T> get(String url, Class<T> clazz) {
+        return get(url, new GetRequest(), clazz);
+    }
+
+    /**
+     * Call service API with http (GET) method.
+     * @param url   Service API URL
+     * @param getRequest   The Form request object includes [Parameters, headers]
+     * @param clazz The response model class
+     * @return The mono of result, empty when response has no body
+     * @param <T>   The type of response class
+     */
+    public <T> Mono<T> get(String url, GetRequest getRequest, Class<T> clazz) {
+        return mono(() -> adapter.getAsync(url, getRequest, clazz));
+    }
+
+    /**
+     * Call service API with http (GET) method return result as flux of array elements.
+     * @param url   Service API URL
+     * @param clazz The response element class
+     * @return The flux of elements
+     * @param <T>   The type of response class
+     */
+    public <T> Flux<T> getResultAsFlux(String url, Class<T> clazz) {
+        return getResultAsFlux(url, new GetRequest(), clazz);
+    }
+
+    /**
+     * Call service API with http (GET) method return result as flux of array elements.
+     * @param url   Service API URL
+     * @param getRequest   The Form request object includes [Parameters, headers]
+     * @param clazz The response element class
+     * @return The flux of elements
+     * @param <T>   The type of response class
+     */
+    public <T> Flux<T> getResultAsFlux(String url, GetRequest getRequest, Class<T> clazz) {
+        return flux(() -> adapter.getResultAsStreamAsync(url, getRequest, clazz));
+    }
+
+    /**
+     * Call service API with [http:DELETE].
+     * @param url Service API URL
+     * @param deleteRequest The request object includes [parameter, headers]
+     * @param clazz The response model class
+     * @return The mono of result, empty when response has no body
+     * @param <T> The type of response class
+     */
+    public <T> Mono<T> delete(String url, DeleteRequest deleteRequest, Class<T> clazz) {
+        return mono(() -> adapter.deleteAsync(url, deleteRequest, clazz));
+    }
+
+    /**
+     * Call service API with [http:DELETE] by json body.
+     * @param url   Service API URL
+     * @param jsonRequest   The request model
+     * @param clazz The response model class
+     * @return The mono of result, empty when response has no body
+     * @param <T>   The type of response class
+     */
+    public <T> Mono<T> delete(String url, JsonRequest<?> jsonRequest, Class<T> clazz) {
+        return mono(() -> adapter.deleteAsync(url, jsonRequest, clazz));
+    }
+
+    /**
+     * Call service API with [http:DELETE] return result as flux of array elements.
+     * @param url Service API URL
+     * @param deleteRequest The request object includes [parameter, headers]
+     * @param clazz The response element class
+     * @return The flux of elements
+     * @param <T> The type of response class
+     */
+    public <T> Flux<T> deleteResultAsFlux(String url, DeleteRequest deleteRequest, Class<T> clazz) {
+        return flux(() -> adapter.deleteResultAsStreamAsync(url, deleteRequest, clazz));
+    }
+
+    private static <T> Mono<T> mono(Supplier<CompletableFuture<T>> call) {
+        return Mono.fromFuture(call);
+    }
+
+    /**
+     * The stream is pulled by downstream requests, the requests are moved to the dispatcher executor
+     * so the blocking read of response body never runs on the subscriber (event-loop) thread.
+     * The stream (http response) is closed on complete, error and cancel.
+     */
+    private <T> Flux<T> flux(Supplier<CompletableFuture<Stream<T>>> call) {
+        return Flux.usingWhen(Mono.fromFuture(call),
+                stream -> Flux.fromStream(stream).subscribeOn(Schedulers.fromExecutor(adapter.getCallExecutor(), true)),
+                stream -> Mono.fromRunnable(stream::close));
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.request;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * <pre>
+ * The options of file download, see {@link io.github.jdevlibs.spring.client.OkHttpClientAdapter#downloadTo}.
+ * The checksum is hex of the digest algorithm, e.g. SHA-256.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+@Data
+@ToString(callSuper = true)
+@EqualsAndHashCode(callSuper = true)
+public class DownloadRequest extends GetRequest {
+    private Long expectedLength;
+    private String checksumAlgorithm = "SHA-256";
+    private String checksum;
+    private boolean resume = true;
+}
@@ -17,14 +17,24 @@
  */
 package io.github.jdevlibs.spring.client.request;
 
+import io.github.jdevlibs.spring.client.compression.CompressionMode;
+import io.github.jdevlibs.spring.client.metrics.CallTimings;
+import io.github.jdevlibs.spring.client.resilience.RetryPolicy;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 import java.io.Serializable;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
+ * <pre>
+ * The common options of request.
+ * The timingsCallback receives the {@link CallTimings} of every call of this request, successful or failed
+ * (captureTimings is implied), on the thread which completes the call.
+ * </pre>
  * @author supot.jdev
  * @version 1.0
  */
@@ -34,6 +44,14 @@ import java.util.Map;
 public class Request implements Serializable {
     private String id;
     private Map<String, String> headers;
+    private RetryPolicy retryPolicy;
+    private Duration callTimeout;
+    private Duration connectTimeout;
+    private Duration readTimeout;
+    private Duration writeTimeout;
+    private boolean captureTimings;
+    private CompressionMode compression;
+    private transient Consumer<CallTimings> timingsCallback;
 
     public void addHeader(String name, String value) {
         if (name == null || name.isEmpty()) {
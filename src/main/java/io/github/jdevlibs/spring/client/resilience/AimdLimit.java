@@ -0,0 +1,50 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * <pre>
+ * Additive increase multiplicative decrease limit. The limit grows by one when the calls
+ * use more than half of the limit, and shrinks by backoff ratio on a dropped or too slow call.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+@Data
+public class AimdLimit implements LimitAlgorithm {
+    private int initialLimit = 20;
+    private int minLimit = 1;
+    private int maxLimit = 200;
+    private double backoffRatio = 0.9;
+    private Duration timeout = Duration.ofSeconds(5);
+
+    @Override
+    public int update(int limit, long rttNanos, int inFlight, boolean dropped) {
+        if (dropped || rttNanos > timeout.toNanos()) {
+            return Math.max(minLimit, (int) (limit * backoffRatio));
+        }
+        if (inFlight * 2 >= limit) {
+            return Math.min(maxLimit, limit + 1);
+        }
+        return limit;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import io.github.jdevlibs.spring.exception.ClientApiException.ClientApiErrorCodes;
+import okhttp3.Call;
+import okhttp3.Request;
+import okio.Timeout;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Request tag of the start time of call, added by the first resilience interceptor of the chain.
+ * Inside the interceptor chain an expired call timeout surfaces as the failure of a cancelled call
+ * (e.g. "Socket closed"), {@link ClientApiErrorCodes#CODE_API_TIMEOUT_CALL} is seen only by the caller.
+ * The start of call tells the expired call timeout from the call cancelled by the caller.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+final class CallStart {
+    /** The interceptors before the tag (e.g. cache) run after the call timeout has started. */
+    private static final long START_SLACK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final long nanos;
+
+    private CallStart(long nanos) {
+        this.nanos = nanos;
+    }
+
+    /**
+     * Tag the request with the start of call, the tag of outer interceptor (e.g. retry) is kept.
+     * @param request The request of chain
+     * @return The tagged request
+     */
+    static Request tag(Request request) {
+        if (request.tag(CallStart.class) != null) {
+            return request;
+        }
+        return request.newBuilder().tag(CallStart.class, new CallStart(System.nanoTime())).build();
+    }
+
+    /**
+     * Check the call failed by its call timeout (Call.timeout()), not cancelled by the caller.
+     * @param call The call
+     * @param request The tagged request
+     * @param ex The failure of call
+     * @return true if the call timeout (or deadline) expired
+     */
+    static boolean isTimedOut(Call call, Request request, Throwable ex) {
+        if (ClientApiErrorCodes.from(ex) == ClientApiErrorCodes.CODE_API_TIMEOUT_CALL) {
+            return true;
+        }
+        if (!call.isCanceled()) {
+            return false;
+        }
+
+        Timeout timeout = call.timeout();
+        long now = System.nanoTime();
+        CallStart start = request.tag(CallStart.class);
+        if (start != null && timeout.timeoutNanos() > 0
+                && now - start.nanos >= timeout.timeoutNanos() - START_SLACK_NANOS) {
+            return true;
+        }
+        return timeout.hasDeadline() && now >= timeout.deadlineNanoTime();
+    }
+}
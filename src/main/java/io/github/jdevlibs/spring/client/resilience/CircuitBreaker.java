@@ -0,0 +1,197 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <pre>
+ * Circuit breaker of a downstream host or endpoint with count based sliding window.
+ * CLOSED: calls are permitted, the circuit opens when failure rate or slow call rate reaches the threshold.
+ * OPEN: calls are rejected immediately until the open duration is elapsed.
+ * HALF_OPEN: a limited number of probe calls are permitted, any failed probe opens the circuit again,
+ * all successful probes close the circuit.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class CircuitBreaker {
+    private static final byte SUCCESS = 0;
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    private final String name;
+    private final CircuitBreakerConfig config;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final byte[] window;
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private volatile State state = State.CLOSED;
+    private long openUntil;
+    private int index;
+    private int count;
+    private int failures;
+    private int slowCalls;
+    private int probePermits;
+    private int probeSuccesses;
+
+    public CircuitBreaker(String name, CircuitBreakerConfig config) {
+        this.name = name;
+        this.config = config;
+        this.slowCallNanos = config.getSlowCallDuration().toNanos();
+        this.openNanos = config.getOpenDuration().toNanos();
+        this.window = new byte[Math.max(1, config.getSlidingWindowSize())];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /** @return The number of calls rejected while open */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * Acquire permission of call.
+     * @return true if the call is permitted
+     */
+    public boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openUntil >= 0) {
+                state = State.HALF_OPEN;
+                probePermits = config.getHalfOpenCalls();
+                probeSuccesses = 0;
+            }
+            if (state == State.HALF_OPEN && probePermits > 0) {
+                probePermits--;
+                return true;
+            }
+            if (state == State.CLOSED) {
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        rejectedCount.increment();
+        return false;
+    }
+
+    /**
+     * Release permission of call which is not completed (cancelled or rejected by another limiter),
+     * the result is not recorded.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                probePermits++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record result of permitted call.
+     * @param durationNanos The duration of call
+     * @param failure The call is failed
+     */
+    public void onResult(long durationNanos, boolean failure) {
+        byte outcome = failure ? FAILURE : SUCCESS;
+        if (durationNanos > slowCallNanos) {
+            outcome |= SLOW;
+        }
+
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                if (failure) {
+                    open();
+                } else if (++probeSuccesses >= config.getHalfOpenCalls()) {
+                    close();
+                }
+                return;
+            }
+            if (state == State.OPEN) {
+                return;
+            }
+
+            record(outcome);
+            if (count >= config.getMinimumCalls()
+                    && (rate(failures) >= config.getFailureRateThreshold()
+                    || rate(slowCalls) >= config.getSlowCallRateThreshold())) {
+                open();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(byte outcome) {
+        if (count == window.length) {
+            byte evicted = window[index];
+            failures -= evicted & FAILURE;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            count++;
+        }
+        window[index] = outcome;
+        failures += outcome & FAILURE;
+        slowCalls += (outcome & SLOW) >> 1;
+        index = (index + 1) % window.length;
+    }
+
+    private float rate(int calls) {
+        return calls * 100f / count;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = System.nanoTime() + openNanos;
+        reset();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        reset();
+    }
+
+    private void reset() {
+        index = 0;
+        count = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
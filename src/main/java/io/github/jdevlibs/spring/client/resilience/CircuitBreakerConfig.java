@@ -0,0 +1,51 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Configuration of {@link CircuitBreaker}, the rates are calculated over a sliding window of last calls.
+ * @author supot.jdev
+ * @version 1.0
+ */
+@Data
+public class CircuitBreakerConfig {
+    /** Open the circuit when failure rate (percentage) reaches the threshold. */
+    private float failureRateThreshold = 50;
+    /** Open the circuit when slow call rate (percentage) reaches the threshold. */
+    private float slowCallRateThreshold = 100;
+    /** The call which takes longer than this duration is slow. */
+    private Duration slowCallDuration = Duration.ofSeconds(5);
+    /** The number of last calls of sliding window. */
+    private int slidingWindowSize = 100;
+    /** The minimum calls in window before the rates are evaluated. */
+    private int minimumCalls = 20;
+    /** The time of open state before probe calls are permitted. */
+    private Duration openDuration = Duration.ofSeconds(30);
+    /** The number of probe calls of half-open state. */
+    private int halfOpenCalls = 5;
+    /** The HTTP status from this value is recorded as failure. */
+    private int failureStatusFrom = 500;
+    /** One circuit per host, or per host and path. */
+    private boolean perEndpoint = false;
+    /** The maximum circuits of per endpoint, the paths above this number (e.g. path with id) share the circuit of host. */
+    private int maxEndpoints = 1000;
+}
@@ -0,0 +1,106 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import io.github.jdevlibs.spring.exception.CallRejectedException;
+import io.github.jdevlibs.spring.exception.ClientApiException.ClientApiErrorCodes;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <pre>
+ * Interceptor of per-host (or per-endpoint) {@link CircuitBreaker}.
+ * While the circuit is open, the call fails fast with {@link ClientApiErrorCodes#CODE_API_CIRCUIT_OPEN}.
+ * With per endpoint, the paths above max endpoints of config are merged to the circuit of host.
+ * The call cancelled by the caller is not recorded, the call failed by its call timeout is a failure.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class CircuitBreakerRegistry implements Interceptor {
+    private final CircuitBreakerConfig config;
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerRegistry() {
+        this(new CircuitBreakerConfig());
+    }
+
+    public CircuitBreakerRegistry(CircuitBreakerConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Get circuit breaker of key, the key is host:port or host:port/path of per endpoint.
+     * @param key The key of circuit breaker
+     * @return The circuit breaker
+     */
+    public CircuitBreaker getCircuitBreaker(String key) {
+        return breakers.computeIfAbsent(key, name -> new CircuitBreaker(name, config));
+    }
+
+    public Collection<CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableCollection(breakers.values());
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = CallStart.tag(chain.request());
+        CircuitBreaker breaker = circuitBreaker(request.url());
+        if (!breaker.tryAcquire()) {
+            throw new CallRejectedException(ClientApiErrorCodes.CODE_API_CIRCUIT_OPEN,
+                    "Circuit breaker open of " + breaker.getName());
+        }
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException ex) {
+            boolean canceled = chain.call().isCanceled() && !CallStart.isTimedOut(chain.call(), request, ex);
+            if (ex instanceof CallRejectedException || canceled) {
+                breaker.release();
+            } else {
+                breaker.onResult(System.nanoTime() - start, true);
+            }
+            throw ex;
+        }
+        breaker.onResult(System.nanoTime() - start, response.code() >= config.getFailureStatusFrom());
+        return response;
+    }
+
+    private CircuitBreaker circuitBreaker(HttpUrl url) {
+        String host = url.host() + ':' + url.port();
+        String key = config.isPerEndpoint() ? host + url.encodedPath() : host;
+        CircuitBreaker breaker = breakers.get(key);
+        if (breaker != null) {
+            return breaker;
+        }
+        if (config.isPerEndpoint() && breakers.size() >= config.getMaxEndpoints()) {
+            key = host;
+        }
+        return getCircuitBreaker(key);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <pre>
+ * Adaptive concurrency limiter (bulkhead) of a downstream host.
+ * The call is permitted while in-flight calls are below the limit, otherwise it waits in a bounded
+ * queue up to max wait time, or is rejected. The limit is updated by {@link LimitAlgorithm}.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class ConcurrencyLimiter {
+    private final String name;
+    private final LimitAlgorithm algorithm;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private volatile int limit;
+    private volatile int inFlight;
+    private int waiting;
+
+    public ConcurrencyLimiter(String name, LimitAlgorithm algorithm, int maxQueue, long maxWait, TimeUnit unit) {
+        this.name = name;
+        this.algorithm = algorithm;
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = unit.toNanos(maxWait);
+        this.limit = Math.max(1, algorithm.getInitialLimit());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * Acquire permission of call, wait in queue when the limit is reached.
+     * @return The number of in-flight calls includes this call, or -1 if rejected
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public int acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < limit) {
+                return ++inFlight;
+            }
+            if (waiting >= maxQueue || maxWaitNanos <= 0) {
+                rejectedCount.increment();
+                return -1;
+            }
+
+            waiting++;
+            try {
+                long nanos = maxWaitNanos;
+                while (inFlight >= limit) {
+                    if (nanos <= 0) {
+                        rejectedCount.increment();
+                        return -1;
+                    }
+                    nanos = available.awaitNanos(nanos);
+                }
+                return ++inFlight;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Update the limit by sample of call which still holds its permission, e.g. the response headers arrived
+     * and the body is still being read. The permission is released later by {@link #release} without sample.
+     * @param rttNanos The round trip time of call
+     * @param inFlightAtStart The number of in-flight calls when the call started
+     * @param dropped The call is failed by timeout or overload response
+     */
+    public void sample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        lock.lock();
+        try {
+            limit = Math.max(1, algorithm.update(limit, rttNanos, inFlightAtStart, dropped));
+            if (inFlight < limit) {
+                available.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release permission of call and update the limit.
+     * @param rttNanos The round trip time of call, negative value for not sample this call
+     * @param inFlightAtStart The number of in-flight calls when the call started
+     * @param dropped The call is failed by timeout or overload response
+     */
+    public void release(long rttNanos, int inFlightAtStart, boolean dropped) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (rttNanos >= 0) {
+                limit = Math.max(1, algorithm.update(limit, rttNanos, inFlightAtStart, dropped));
+            }
+            if (inFlight < limit) {
+                available.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import io.github.jdevlibs.spring.exception.CallRejectedException;
+import io.github.jdevlibs.spring.exception.ClientApiException.ClientApiErrorCodes;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * <pre>
+ * Interceptor of per-host {@link ConcurrencyLimiter}, wraps every network call of the adapter.
+ * When the limit and wait queue are full, the call fails with
+ * {@link ClientApiErrorCodes#CODE_API_CONCURRENCY_LIMIT}.
+ * Timeouts (includes the call timeout), 429 and 503 responses are the drop signal of limit algorithm.
+ * The RTT is sampled when the response headers arrive, so a long streamed or slowly consumed body
+ * does not count as latency of the host. The permit is held until the response body is exhausted or closed.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class ConcurrencyLimiterRegistry implements Interceptor {
+    private final Supplier<LimitAlgorithm> algorithmFactory;
+    private final int maxQueue;
+    private final Duration maxWait;
+    private final ConcurrentMap<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * Create registry of AIMD limiter, rejects immediately when the limit is reached.
+     */
+    public ConcurrencyLimiterRegistry() {
+        this(AimdLimit::new, 0, Duration.ZERO);
+    }
+
+    /**
+     * Create registry of limiter
+     * @param algorithmFactory The factory of limit algorithm, one instance per host
+     * @param maxQueue The maximum number of waiting calls per host
+     * @param maxWait The maximum wait time of a queued call
+     */
+    public ConcurrencyLimiterRegistry(Supplier<LimitAlgorithm> algorithmFactory, int maxQueue, Duration maxWait) {
+        this.algorithmFactory = algorithmFactory;
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Get limiter of host
+     * @param host The host:port
+     * @return The concurrency limiter
+     */
+    public ConcurrencyLimiter getLimiter(String host) {
+        return limiters.computeIfAbsent(host, name -> new ConcurrencyLimiter(name, algorithmFactory.get(),
+                maxQueue, maxWait.toNanos(), TimeUnit.NANOSECONDS));
+    }
+
+    public Collection<ConcurrencyLimiter> getLimiters() {
+        return Collections.unmodifiableCollection(limiters.values());
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = CallStart.tag(chain.request());
+        ConcurrencyLimiter limiter = limiter(request.url());
+        int inFlight;
+        try {
+            inFlight = limiter.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for concurrency limit");
+        }
+        if (inFlight < 0) {
+            throw new CallRejectedException(ClientApiErrorCodes.CODE_API_CONCURRENCY_LIMIT,
+                    "Concurrency limit exceeded of " + limiter.getName());
+        }
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException ex) {
+            boolean timedOut = CallStart.isTimedOut(chain.call(), request, ex);
+            boolean sample = !(ex instanceof CallRejectedException) && (timedOut || !chain.call().isCanceled());
+            limiter.release(sample ? System.nanoTime() - start : -1, inFlight,
+                    timedOut || ex instanceof SocketTimeoutException);
+            throw ex;
+        }
+
+        limiter.sample(System.nanoTime() - start, inFlight, response.code() == 429 || response.code() == 503);
+        ResponseBody body = response.body();
+        Permit permit = new Permit(limiter, inFlight);
+        if (body == null) {
+            permit.release();
+            return response;
+        }
+        return response.newBuilder().body(new LimitedBody(body, permit)).build();
+    }
+
+    private ConcurrencyLimiter limiter(HttpUrl url) {
+        String key = url.host() + ':' + url.port();
+        ConcurrencyLimiter limiter = limiters.get(key);
+        return limiter != null ? limiter : getLimiter(key);
+    }
+
+    /**
+     * The acquired permit of call, released once without sample when the body is exhausted, failed or closed.
+     */
+    private static final class Permit {
+        private final ConcurrencyLimiter limiter;
+        private final int inFlight;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(ConcurrencyLimiter limiter, int inFlight) {
+            this.limiter = limiter;
+            this.inFlight = inFlight;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(-1, inFlight, false);
+            }
+        }
+    }
+
+    private static final class LimitedBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final Permit permit;
+        private BufferedSource source;
+
+        private LimitedBody(ResponseBody delegate, Permit permit) {
+            this.delegate = delegate;
+            this.permit = permit;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            if (source == null) {
+                source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                    @Override
+                    public long read(Buffer sink, long byteCount) throws IOException {
+                        try {
+                            long read = super.read(sink, byteCount);
+                            if (read == -1) {
+                                permit.release();
+                            }
+                            return read;
+                        } catch (IOException ex) {
+                            permit.release();
+                            throw ex;
+                        }
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            permit.release();
+                        }
+                    }
+                });
+            }
+            return source;
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                permit.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * <pre>
+ * Gradient (Vegas style) limit, compares the short term latency with the long term latency.
+ * When latency grows the gradient (long / short) is below 1 and the limit shrinks, while latency is
+ * stable the limit grows by a queue allowance of sqrt(limit).
+ * The limit is not increased while the calls use less than half of the limit (application limited).
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+@Getter
+@Setter
+public class GradientLimit implements LimitAlgorithm {
+    private int initialLimit = 20;
+    private int minLimit = 1;
+    private int maxLimit = 200;
+    private double smoothing = 0.2;
+    private double rttTolerance = 1.5;
+    private double backoffRatio = 0.9;
+    private int longWindow = 600;
+
+    private double estimatedLimit = -1;
+    private double longRtt = -1;
+
+    @Override
+    public int update(int limit, long rttNanos, int inFlight, boolean dropped) {
+        if (estimatedLimit < 0) {
+            estimatedLimit = limit;
+        }
+        double shortRtt = rttNanos;
+        longRtt = longRtt < 0 ? shortRtt : longRtt + (shortRtt - longRtt) / longWindow;
+        if (longRtt / shortRtt > 2) {
+            // Latency has recovered, reset the long term latency faster
+            longRtt = shortRtt * 2;
+        }
+
+        double newLimit;
+        if (dropped) {
+            newLimit = estimatedLimit * backoffRatio;
+        } else if (inFlight * 2 < estimatedLimit) {
+            return (int) estimatedLimit;
+        } else {
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+            newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        }
+
+        estimatedLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        return (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import io.github.jdevlibs.spring.client.metrics.LatencyHistogram;
+import okhttp3.HttpUrl;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * Policy of hedged GET requests. When a GET has not completed after the hedge delay, a second identical
+ * request is sent, the first response wins and the other call is cancelled.
+ * The delay is fixed, or the observed latency percentile of the endpoint (scheme://host:port/path)
+ * once there are enough samples. The hedges are capped by a {@link RetryBudget}, e.g. ratio 0.05
+ * allows about 5% extra requests.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class HedgePolicy {
+    private static final int MAX_ENDPOINTS = 1000;
+
+    private final Duration delay;
+    private final double percentile;
+    private final RetryBudget budget;
+    private int minSamples = 20;
+    private int window = 1000;
+    private Duration minDelay = Duration.ofMillis(5);
+
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final LongAdder hedgeCount = new LongAdder();
+    private final LongAdder hedgeWinCount = new LongAdder();
+
+    /**
+     * Create hedge policy of fixed delay, the hedges are capped at 5% of requests.
+     * @param delay The hedge delay
+     */
+    public HedgePolicy(Duration delay) {
+        this(delay, 0, new RetryBudget(0.05, 10));
+    }
+
+    /**
+     * Create hedge policy
+     * @param delay The fixed delay, or the delay until enough samples of percentile
+     * @param percentile The latency percentile of delay (e.g. 0.95), 0 for fixed delay
+     * @param budget The budget of hedge requests
+     */
+    public HedgePolicy(Duration delay, double percentile, RetryBudget budget) {
+        this.delay = delay;
+        this.percentile = percentile;
+        this.budget = budget;
+    }
+
+    /**
+     * @param minSamples The minimum samples before use the percentile delay, default 20
+     */
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * @param window The number of samples of latency window, default 1000
+     */
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    /**
+     * @param minDelay The minimum percentile delay, default 5 milliseconds
+     */
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public long getHedgeCount() {
+        return hedgeCount.sum();
+    }
+
+    /** @return The number of calls won by the hedge request */
+    public long getHedgeWinCount() {
+        return hedgeWinCount.sum();
+    }
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Get the endpoint key of URL, the endpoints above limit share the key of host.
+     * @param url The request URL
+     * @return The endpoint key
+     */
+    public String endpoint(HttpUrl url) {
+        String key = url.scheme() + "://" + url.host() + ':' + url.port() + url.encodedPath();
+        if (endpoints.size() >= MAX_ENDPOINTS && !endpoints.containsKey(key)) {
+            return url.scheme() + "://" + url.host() + ':' + url.port();
+        }
+        return key;
+    }
+
+    /**
+     * Get hedge delay of endpoint, and deposit the budget of an original request.
+     * @param endpoint The endpoint key
+     * @return The delay in milliseconds
+     */
+    public long delayMillis(String endpoint) {
+        budget.deposit();
+        if (percentile <= 0) {
+            return delay.toMillis();
+        }
+
+        Endpoint stats = endpoints.get(endpoint);
+        long micros = stats != null ? stats.delayMicros() : 0;
+        if (micros <= 0) {
+            return delay.toMillis();
+        }
+        return Math.max(minDelay.toMillis(), TimeUnit.MICROSECONDS.toMillis(micros));
+    }
+
+    /**
+     * Try to withdraw budget of hedge request
+     * @return true if the hedge is allowed
+     */
+    public boolean tryHedge() {
+        if (budget.tryWithdraw()) {
+            hedgeCount.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Record latency of a successful call
+     * @param endpoint The endpoint key
+     * @param nanos The latency of call
+     * @param hedge The call is the hedge request
+     */
+    public void record(String endpoint, long nanos, boolean hedge) {
+        if (hedge) {
+            hedgeWinCount.increment();
+        }
+        if (percentile > 0) {
+            endpoints.computeIfAbsent(endpoint, key -> new Endpoint()).record(nanos);
+        }
+    }
+
+    private final class Endpoint {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private volatile long lastDelay;
+
+        private void record(long nanos) {
+            histogram.record(nanos);
+            if (histogram.getCount() >= window) {
+                lastDelay = histogram.getPercentile(percentile);
+                histogram.reset();
+            }
+        }
+
+        private long delayMicros() {
+            if (histogram.getCount() >= minSamples) {
+                return histogram.getPercentile(percentile);
+            }
+            return lastDelay;
+        }
+    }
+}
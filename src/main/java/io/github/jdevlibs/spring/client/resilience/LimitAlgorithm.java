@@ -0,0 +1,44 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+/**
+ * <pre>
+ * Algorithm of adaptive concurrency limit, the limit is updated from observed latency of each call.
+ * The instance is owned by one {@link ConcurrencyLimiter} and called under its lock.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public interface LimitAlgorithm {
+
+    /**
+     * @return The initial concurrency limit
+     */
+    int getInitialLimit();
+
+    /**
+     * Calculate new limit from sample of completed call.
+     * @param limit The current limit
+     * @param rttNanos The round trip time of call
+     * @param inFlight The number of in-flight calls when the call started
+     * @param dropped The call is failed by timeout or overload response (429, 503)
+     * @return The new limit
+     */
+    int update(int limit, long rttNanos, int inFlight, boolean dropped);
+}
@@ -0,0 +1,108 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * Token bucket rate limiter implemented as GCRA (generic cell rate algorithm).
+ * The whole state is a single theoretical arrival time updated by CAS, so acquire is lock-free.
+ * A permit is reserved up front, the caller waits the returned time before sending the call.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class RateLimiter {
+    private final String name;
+    private final double permitsPerSecond;
+    private final int burst;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong arrivalTime;
+    private final LongAdder permittedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    /**
+     * Create rate limiter
+     * @param name The name of limiter
+     * @param permitsPerSecond The permits per second, zero or negative for unlimited
+     * @param burst The maximum permits acquired at once
+     */
+    public RateLimiter(String name, double permitsPerSecond, int burst) {
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(1, burst);
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+        this.toleranceNanos = intervalNanos * (this.burst - 1);
+        this.arrivalTime = new AtomicLong(System.nanoTime());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public long getPermittedCount() {
+        return permittedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * Reserve a permit
+     * @param maxWaitNanos The maximum wait time, zero for fail fast
+     * @return The wait time in nanoseconds before the permit is available, or -1 if rejected
+     */
+    public long reserve(long maxWaitNanos) {
+        long now = System.nanoTime();
+        while (true) {
+            long tat = arrivalTime.get();
+            long wait = Math.max(0, tat - toleranceNanos - now);
+            if (wait > maxWaitNanos) {
+                rejectedCount.increment();
+                return -1;
+            }
+            if (arrivalTime.compareAndSet(tat, Math.max(tat, now) + intervalNanos)) {
+                permittedCount.increment();
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * Pause the limiter until time of server quota reset, the permits resume without burst.
+     * @param delay The delay
+     * @param unit The time unit of delay
+     */
+    public void pause(long delay, TimeUnit unit) {
+        long until = System.nanoTime() + unit.toNanos(delay) + toleranceNanos;
+        arrivalTime.accumulateAndGet(until, Math::max);
+    }
+}
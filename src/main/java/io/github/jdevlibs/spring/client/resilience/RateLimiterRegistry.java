@@ -0,0 +1,234 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import io.github.jdevlibs.spring.exception.CallRejectedException;
+import io.github.jdevlibs.spring.exception.ClientApiException.ClientApiErrorCodes;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Interceptor of client-side rate limit per host or URL pattern.
+ * The pattern is host, host:port or URL prefix (e.g. https://api.example.com/v1/orders), the most specific
+ * pattern matched is used: URL prefix with the longest path, then host:port, then host.
+ * The URL prefix matches scheme, host, port and the path on a segment boundary, e.g. /v1/orders matches
+ * /v1/orders and /v1/orders/1 but not /v1/orders-archive. When a permit is not available within max wait, the call fails with
+ * {@link ClientApiErrorCodes#CODE_API_RATE_LIMITED}, max wait zero is fail fast.
+ *
+ * The limiter adapts to server quota headers, the permits are paused on
+ *  - 429 or 503 with Retry-After
+ *  - X-RateLimit-Remaining: 0 with X-RateLimit-Reset (seconds or epoch seconds)
+ * A host without rule gets an unlimited limiter which applies only the server quota pause.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class RateLimiterRegistry implements Interceptor {
+    public static final String HEADER_RATE_LIMIT_REMAINING = "X-RateLimit-Remaining";
+    public static final String HEADER_RATE_LIMIT_RESET = "X-RateLimit-Reset";
+    private static final long EPOCH_SECONDS_FROM = 1_000_000_000L;
+
+    private volatile List<Rule> rules = Collections.emptyList();
+    private final ConcurrentMap<String, RateLimiter> hostLimiters = new ConcurrentHashMap<>();
+    private final Duration maxWait;
+    private Duration maxPause = Duration.ofMinutes(1);
+
+    /**
+     * Create registry which fails fast when the permit is not available.
+     */
+    public RateLimiterRegistry() {
+        this(Duration.ZERO);
+    }
+
+    /**
+     * Create registry which blocks up to max wait for the permit
+     * @param maxWait The maximum wait time of permit
+     */
+    public RateLimiterRegistry(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Add rate limit rule
+     * @param pattern The host, host:port or URL prefix
+     * @param permitsPerSecond The permits per second
+     * @param burst The maximum permits acquired at once
+     * @return This registry
+     * @throws IllegalArgumentException If the URL prefix is not a valid http or https URL
+     */
+    public RateLimiterRegistry addLimit(String pattern, double permitsPerSecond, int burst) {
+        Rule rule = new Rule(pattern, new RateLimiter(pattern, permitsPerSecond, burst));
+        List<Rule> sorted = new ArrayList<>(rules);
+        sorted.add(rule);
+        sorted.sort(Comparator.comparingInt((Rule r) -> r.rank).reversed());
+        rules = Collections.unmodifiableList(sorted);
+        return this;
+    }
+
+    /**
+     * Set the maximum pause by server quota headers, default 1 minute
+     * @param maxPause The maximum pause
+     */
+    public void setMaxPause(Duration maxPause) {
+        this.maxPause = maxPause;
+    }
+
+    public Collection<RateLimiter> getRateLimiters() {
+        List<RateLimiter> limiters = new ArrayList<>();
+        rules.forEach(rule -> limiters.add(rule.limiter));
+        limiters.addAll(hostLimiters.values());
+        return limiters;
+    }
+
+    /**
+     * Get rate limiter of URL
+     * @param url The URL
+     * @return The rate limiter
+     */
+    public RateLimiter getRateLimiter(HttpUrl url) {
+        for (Rule rule : rules) {
+            if (rule.matches(url)) {
+                return rule.limiter;
+            }
+        }
+        return hostLimiters.computeIfAbsent(url.host() + ':' + url.port(), name -> new RateLimiter(name, 0, 1));
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        RateLimiter limiter = getRateLimiter(request.url());
+        long wait = limiter.reserve(maxWait.toNanos());
+        if (wait < 0) {
+            throw new CallRejectedException(ClientApiErrorCodes.CODE_API_RATE_LIMITED,
+                    "Rate limit exceeded of " + limiter.getName());
+        }
+        sleep(wait);
+
+        Response response = chain.proceed(request);
+        long pause = pauseMillis(response);
+        if (pause > 0) {
+            limiter.pause(Math.min(pause, maxPause.toMillis()), TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    private static long pauseMillis(Response response) {
+        if (response.code() == 429 || response.code() == 503) {
+            long retryAfter = RetryInterceptor.retryAfterMillis(response);
+            if (retryAfter > 0) {
+                return retryAfter;
+            }
+        }
+        if (!"0".equals(response.header(HEADER_RATE_LIMIT_REMAINING))) {
+            return 0;
+        }
+        String reset = response.header(HEADER_RATE_LIMIT_RESET);
+        if (reset == null) {
+            return 0;
+        }
+        try {
+            long value = Long.parseLong(reset.trim());
+            if (value >= EPOCH_SECONDS_FROM) {
+                return TimeUnit.SECONDS.toMillis(value) - System.currentTimeMillis();
+            }
+            return TimeUnit.SECONDS.toMillis(value);
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    private static void sleep(long nanos) throws InterruptedIOException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for rate limit");
+        }
+    }
+
+    /**
+     * The rule of pattern, the URL prefix is parsed so the default port and the case of host are normalized.
+     */
+    private static final class Rule {
+        private final RateLimiter limiter;
+        private final HttpUrl prefix;
+        private final String host;
+        private final int port;
+        private final int rank;
+
+        private Rule(String pattern, RateLimiter limiter) {
+            this.limiter = limiter;
+            if (pattern.contains("://")) {
+                prefix = HttpUrl.parse(pattern);
+                if (prefix == null) {
+                    throw new IllegalArgumentException("Invalid URL prefix " + pattern);
+                }
+                host = prefix.host();
+                port = prefix.port();
+                rank = Integer.MAX_VALUE / 2 + prefix.encodedPath().length();
+            } else {
+                prefix = null;
+                int colon = pattern.lastIndexOf(':');
+                host = (colon > 0 ? pattern.substring(0, colon) : pattern).toLowerCase(Locale.ROOT);
+                port = colon > 0 ? Integer.parseInt(pattern.substring(colon + 1)) : -1;
+                rank = port > 0 ? 1 : 0;
+            }
+        }
+
+        private boolean matches(HttpUrl url) {
+            if (!host.equals(url.host()) || (port > 0 && port != url.port())) {
+                return false;
+            }
+            if (prefix == null) {
+                return true;
+            }
+            return prefix.scheme().equals(url.scheme()) && matchPath(url.encodedPath(), prefix.encodedPath());
+        }
+
+        /**
+         * The path starts with the path of prefix and the prefix ends on a path segment boundary.
+         */
+        private static boolean matchPath(String path, String prefixPath) {
+            if (!path.startsWith(prefixPath)) {
+                return false;
+            }
+            return path.length() == prefixPath.length() || prefixPath.endsWith("/")
+                    || path.charAt(prefixPath.length()) == '/';
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * Token bucket of retry budget, caps retries at a ratio of traffic for prevent retry storms.
+ * Each original request deposits ratio token (up to max tokens), each retry withdraws one token.
+ * E.g. ratio 0.1 allows retry about 10% of requests after the initial tokens are used.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class RetryBudget {
+    private static final long SCALE = 1000L;
+
+    private final long ratio;
+    private final long maxTokens;
+    private final AtomicLong tokens;
+    private final LongAdder exhaustedCount = new LongAdder();
+
+    /**
+     * Create retry budget
+     * @param ratio The ratio of retry per request, e.g. 0.1
+     * @param maxTokens The maximum tokens of burst retry
+     */
+    public RetryBudget(double ratio, int maxTokens) {
+        this.ratio = (long) (ratio * SCALE);
+        this.maxTokens = maxTokens * SCALE;
+        this.tokens = new AtomicLong(this.maxTokens);
+    }
+
+    /**
+     * Deposit token of an original request.
+     */
+    public void deposit() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current >= maxTokens) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.min(maxTokens, current + ratio)));
+    }
+
+    /**
+     * Withdraw token of a retry.
+     * @return true if the retry is allowed
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < SCALE) {
+                exhaustedCount.increment();
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    /** @return The available retry tokens */
+    public double getTokens() {
+        return tokens.get() / (double) SCALE;
+    }
+
+    /** @return The number of retries rejected by the budget */
+    public long getExhaustedCount() {
+        return exhaustedCount.sum();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import io.github.jdevlibs.spring.exception.ClientApiException.ClientApiErrorCodes;
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * Application interceptor of {@link RetryPolicy}, the policy of request (tag of {@link RetryPolicy})
+ * overrides the default policy of adapter. The retries are limited by optional {@link RetryBudget}.
+ * A retry is skipped when its backoff does not fit in the time left of call timeout, and the backoff
+ * ends early when the call is cancelled.
+ * The backoff blocks the thread of call, for asynchronous calls it is a thread of OkHttp dispatcher.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class RetryInterceptor implements Interceptor {
+    public static final String HEADER_IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String HEADER_RETRY_AFTER = "Retry-After";
+    private static final long WAIT_POLL_MILLIS = 20;
+    private static final Logger logger = LoggerFactory.getLogger(RetryInterceptor.class);
+
+    private final RetryPolicy defaultPolicy;
+    private final RetryBudget budget;
+    private final LongAdder retryCount = new LongAdder();
+
+    public RetryInterceptor(RetryPolicy defaultPolicy, RetryBudget budget) {
+        this.defaultPolicy = defaultPolicy;
+        this.budget = budget;
+    }
+
+    /** @return The number of retry attempts */
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = CallStart.tag(chain.request());
+        RetryPolicy policy = request.tag(RetryPolicy.class);
+        if (policy == null) {
+            policy = defaultPolicy;
+        }
+        if (budget != null) {
+            budget.deposit();
+        }
+        if (policy == null || policy.getMaxAttempts() <= 1 || !isIdempotent(request)) {
+            return chain.proceed(request);
+        }
+
+        long startNanos = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            boolean lastAttempt = attempt >= policy.getMaxAttempts();
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException ex) {
+                ClientApiErrorCodes error = ClientApiErrorCodes.from(ex);
+                long delay = policy.backoffMillis(attempt, ThreadLocalRandom.current().nextDouble());
+                if (lastAttempt || chain.call().isCanceled() || !policy.isRetryableError(error)
+                        || !fitsTimeout(chain.call(), startNanos, delay) || !allowRetry()) {
+                    throw ex;
+                }
+                logger.debug("Retry {} attempt {} after error {}", request.url(), attempt, error);
+                await(chain.call(), delay);
+                continue;
+            }
+
+            if (lastAttempt || !policy.isRetryableStatus(response.code())) {
+                return response;
+            }
+
+            long delay = policy.backoffMillis(attempt, ThreadLocalRandom.current().nextDouble());
+            if (policy.isHonorRetryAfter()) {
+                long retryAfter = retryAfterMillis(response);
+                if (retryAfter > policy.getMaxRetryAfter().toMillis()) {
+                    return response;
+                }
+                delay = Math.max(delay, retryAfter);
+            }
+            if (chain.call().isCanceled() || !fitsTimeout(chain.call(), startNanos, delay) || !allowRetry()) {
+                return response;
+            }
+
+            response.close();
+            logger.debug("Retry {} attempt {} after http status {}", request.url(), attempt, response.code());
+            await(chain.call(), delay);
+        }
+    }
+
+    private boolean allowRetry() {
+        if (budget != null && !budget.tryWithdraw()) {
+            return false;
+        }
+        retryCount.increment();
+        return true;
+    }
+
+    static boolean isIdempotent(Request request) {
+        switch (request.method()) {
+            case "GET":
+            case "HEAD":
+            case "PUT":
+            case "DELETE":
+            case "OPTIONS":
+                return true;
+            default:
+                return request.header(HEADER_IDEMPOTENCY_KEY) != null;
+        }
+    }
+
+    static long retryAfterMillis(Response response) {
+        String value = response.header(HEADER_RETRY_AFTER);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+        } catch (NumberFormatException ex) {
+            Date date = response.headers().getDate(HEADER_RETRY_AFTER);
+            return date != null ? Math.max(0, date.getTime() - System.currentTimeMillis()) : 0;
+        }
+    }
+
+    /**
+     * Check the backoff ends before the call timeout (started at the first attempt) or the deadline of call.
+     */
+    private static boolean fitsTimeout(Call call, long startNanos, long delayMillis) {
+        Timeout timeout = call.timeout();
+        long now = System.nanoTime();
+        long remaining = Long.MAX_VALUE;
+        if (timeout.timeoutNanos() > 0) {
+            remaining = timeout.timeoutNanos() - (now - startNanos);
+        }
+        if (timeout.hasDeadline()) {
+            remaining = Math.min(remaining, timeout.deadlineNanoTime() - now);
+        }
+        return TimeUnit.MILLISECONDS.toNanos(delayMillis) < remaining;
+    }
+
+    /**
+     * Wait for the backoff, the wait ends when the call is cancelled (or timed out).
+     */
+    private static void await(Call call, long millis) throws IOException {
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        try {
+            for (long left = millis; left > 0; left = TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime())) {
+                if (call.isCanceled()) {
+                    throw new IOException("Canceled");
+                }
+                Thread.sleep(Math.min(left, WAIT_POLL_MILLIS));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for retry");
+        }
+    }
+}
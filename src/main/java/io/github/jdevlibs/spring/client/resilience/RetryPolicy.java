@@ -0,0 +1,86 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import io.github.jdevlibs.spring.exception.ClientApiException.ClientApiErrorCodes;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * <pre>
+ * Retry policy of call service API, exponential backoff with full jitter.
+ * The policy can be set per adapter or per request ({@link io.github.jdevlibs.spring.client.request.Request#setRetryPolicy}).
+ * Only idempotent requests (GET, HEAD, PUT, DELETE, OPTIONS) are retried, POST and PATCH are retried
+ * only when the request has an id which is sent as Idempotency-Key header.
+ * By default the connect timeout, read timeout and connection reset errors are retried, other I/O errors
+ * ({@link ClientApiErrorCodes#CODE_API_ERROR}) are retried only when added to retryable errors.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+@Data
+public class RetryPolicy implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private int maxAttempts = 3;
+    private Duration initialBackoff = Duration.ofMillis(100);
+    private Duration maxBackoff = Duration.ofSeconds(2);
+    private double multiplier = 2.0;
+    private boolean honorRetryAfter = true;
+    private Duration maxRetryAfter = Duration.ofSeconds(30);
+    private Set<Integer> retryableStatuses = new HashSet<>(Arrays.asList(429, 502, 503, 504));
+    private Set<ClientApiErrorCodes> retryableErrors = EnumSet.of(
+            ClientApiErrorCodes.CODE_API_TIMEOUT_CONNECTION,
+            ClientApiErrorCodes.CODE_API_TIMEOUT_READ,
+            ClientApiErrorCodes.CODE_API_CONNECTION_RESET);
+
+    /**
+     * Policy of no retry.
+     * @return The policy which allows only one attempt
+     */
+    public static RetryPolicy none() {
+        RetryPolicy policy = new RetryPolicy();
+        policy.setMaxAttempts(1);
+        return policy;
+    }
+
+    public boolean isRetryableStatus(int httpCode) {
+        return retryableStatuses != null && retryableStatuses.contains(httpCode);
+    }
+
+    public boolean isRetryableError(ClientApiErrorCodes error) {
+        return retryableErrors != null && retryableErrors.contains(error);
+    }
+
+    /**
+     * The backoff of retry attempt with full jitter, random between 0 and exponential backoff.
+     * @param retry The retry number, start with 1
+     * @param random The random value between 0.0 and 1.0
+     * @return The backoff in milliseconds
+     */
+    public long backoffMillis(int retry, double random) {
+        double backoff = initialBackoff.toMillis() * Math.pow(multiplier, retry - 1.0);
+        return (long) (Math.min(backoff, maxBackoff.toMillis()) * random);
+    }
+}
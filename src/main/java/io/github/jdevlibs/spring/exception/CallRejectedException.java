@@ -0,0 +1,43 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.exception;
+
+import java.io.IOException;
+
+/**
+ * <pre>
+ * The call is rejected by client side protection (circuit breaker, concurrency limiter, rate limiter)
+ * before sent to service API. It is mapped to {@link ClientApiException} with the error code.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public class CallRejectedException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final ClientApiException.ClientApiErrorCodes error;
+
+    public CallRejectedException(ClientApiException.ClientApiErrorCodes error, String message) {
+        super(message);
+        this.error = error;
+    }
+
+    public ClientApiException.ClientApiErrorCodes getError() {
+        return error;
+    }
+}
@@ -19,10 +19,22 @@ package io.github.jdevlibs.spring.exception;
 
 import io.github.jdevlibs.spring.utils.JsonUtils;
 
+import javax.net.ssl.SSLHandshakeException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
 import java.util.List;
 import java.util.Map;
 
 /**
+ * <pre>
+ * The failure of call service API, classified by {@link ClientApiErrorCodes}.
+ * The connection reset by peer and the unexpected end of stream (e.g. the stale pooled connection) are
+ * {@link ClientApiErrorCodes#CODE_API_CONNECTION_RESET}, not {@link ClientApiErrorCodes#CODE_API_ERROR},
+ * check them by {@link #isConnectionReset()} or {@link #isApiError()}.
+ * </pre>
  * @author supot.jdev
  * @version 1.0
  */
@@ -110,6 +122,14 @@ public class ClientApiException extends RuntimeException {
         return error != null ? error.getMessage() : null;
     }
 
+    public ClientApiErrorCodes getError() {
+        return error;
+    }
+
+    public int getHttpCode() {
+        return httpCode;
+    }
+
     /**
      * Auto convert error response body to model
      * @param clazz The class of model
@@ -166,17 +186,43 @@ public class ClientApiException extends RuntimeException {
         return ClientApiErrorCodes.CODE_API_UNKNOWN_HOST == error;
     }
 
+    public boolean isCircuitOpen() {
+        return ClientApiErrorCodes.CODE_API_CIRCUIT_OPEN == error;
+    }
+
+    public boolean isConcurrencyLimit() {
+        return ClientApiErrorCodes.CODE_API_CONCURRENCY_LIMIT == error;
+    }
+
+    public boolean isRateLimited() {
+        return ClientApiErrorCodes.CODE_API_RATE_LIMITED == error;
+    }
+
+    public boolean isCallTimeout() {
+        return ClientApiErrorCodes.CODE_API_TIMEOUT_CALL == error;
+    }
+
+    public boolean isConnectionReset() {
+        return ClientApiErrorCodes.CODE_API_CONNECTION_RESET == error;
+    }
+
     public boolean isApiTimeout() {
-        return isConnectionTimeout() || isReadTimeout() || isWriteTimeout();
+        return isConnectionTimeout() || isReadTimeout() || isWriteTimeout() || isCallTimeout();
     }
 
     public boolean isApiError() {
-        return isApiTimeout() || isUnknownHost();
+        return isApiTimeout() || isUnknownHost() || isConnectionReset() || isCircuitOpen() || isConcurrencyLimit()
+                || isRateLimited();
     }
 
     public enum ClientApiErrorCodes {
 
         CODE_API_ERROR("500", "Internal Server Error"),
+        CODE_API_CONNECTION_RESET("591", "Connection reset"),
+        CODE_API_TIMEOUT_CALL("592", "Call timeout"),
+        CODE_API_RATE_LIMITED("593", "Rate limit exceeded"),
+        CODE_API_CONCURRENCY_LIMIT("594", "Concurrency limit exceeded"),
+        CODE_API_CIRCUIT_OPEN("595", "Circuit breaker open"),
         CODE_API_UNKNOWN_HOST("596", "Unknown host"),
         CODE_API_TIMEOUT_WRITE("597", "Write timeout"),
         CODE_API_TIMEOUT_READ("598", "Read timeout"),
@@ -185,11 +231,67 @@ public class ClientApiException extends RuntimeException {
         final String code;
         final String message;
 
+        private static final String TIMEOUT_CONN    = "java.net.SocketTimeoutException: Connect timed out";
+        private static final String TIMEOUT_READ    = "java.net.SocketTimeoutException: Read timed out";
+        private static final String TIMEOUT_WRITE   = "java.net.SocketTimeoutException: timeout";
+        private static final String TIMEOUT_CALL    = "timeout";
+        private static final String CONN_RESET      = "Connection reset";
+        private static final String END_OF_STREAM   = "unexpected end of stream";
+
         ClientApiErrorCodes(String code, String message){
             this.code = code;
             this.message = message;
         }
 
+        /**
+         * Classify the error code of call service API failure.
+         * @param ex The failure of call
+         * @return The error code
+         */
+        public static ClientApiErrorCodes from(Throwable ex) {
+            if (ex instanceof ClientApiException) {
+                return ((ClientApiException) ex).error;
+            }
+            if (ex instanceof CallRejectedException) {
+                return ((CallRejectedException) ex).getError();
+            }
+
+            if (ex instanceof SocketTimeoutException) {
+                String err = ex.toString();
+                if (err.contains(TIMEOUT_CONN)) {
+                    return CODE_API_TIMEOUT_CONNECTION;
+                } else if (err.contains(TIMEOUT_READ)) {
+                    return CODE_API_TIMEOUT_READ;
+                } else if (err.contains(TIMEOUT_WRITE)) {
+                    return CODE_API_TIMEOUT_WRITE;
+                } else {
+                    return CODE_API_ERROR;
+                }
+            } else if (ex instanceof InterruptedIOException && TIMEOUT_CALL.equals(ex.getMessage())) {
+                // the deadline of Call.timeout() (callTimeout) expired
+                return CODE_API_TIMEOUT_CALL;
+            } else if (ex instanceof UnknownHostException || ex instanceof SSLHandshakeException) {
+                return CODE_API_UNKNOWN_HOST;
+            } else if (isConnectionReset(ex)) {
+                return CODE_API_CONNECTION_RESET;
+            }
+            return CODE_API_ERROR;
+        }
+
+        /**
+         * The connection is reset or closed by peer before the response, e.g. the stale pooled connection.
+         */
+        private static boolean isConnectionReset(Throwable ex) {
+            String message = ex.getMessage();
+            if (message == null) {
+                return false;
+            }
+            if (ex instanceof SocketException) {
+                return message.startsWith(CONN_RESET);
+            }
+            return ex instanceof IOException && message.startsWith(END_OF_STREAM);
+        }
+
         public String getCode() {
             return code;
         }
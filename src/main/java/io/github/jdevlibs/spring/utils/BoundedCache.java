@@ -0,0 +1,78 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of JsonUtils readers, writers and types with lock-free lookup. When the cache is full
+ * the oldest inserted entry is evicted, the evicted entry is created and cached again on next lookup.
+ * @author supot.jdev
+ * @version 1.0
+ */
+final class BoundedCache<K, V> {
+    private final int maxSize;
+    private final ConcurrentMap<K, V> entries = new ConcurrentHashMap<>();
+    private final Queue<K> order = new ConcurrentLinkedQueue<>();
+    private final LongAdder evictions;
+
+    /**
+     * @param maxSize The maximum entries, 0 for no cache
+     * @param evictions The counter of evicted entries, may be shared by caches
+     */
+    BoundedCache(int maxSize, LongAdder evictions) {
+        this.maxSize = maxSize;
+        this.evictions = evictions;
+    }
+
+    V get(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Cache the value of key, evict the oldest entries above max size.
+     * @param key The key
+     * @param value The value
+     * @return The cached value of key, the value when not cached
+     */
+    V putIfAbsent(K key, V value) {
+        if (maxSize <= 0) {
+            return value;
+        }
+        V exists = entries.putIfAbsent(key, value);
+        if (exists != null) {
+            return exists;
+        }
+
+        order.add(key);
+        while (entries.size() > maxSize) {
+            K eldest = order.poll();
+            if (eldest == null) {
+                break;
+            }
+            if (entries.remove(eldest) != null) {
+                evictions.increment();
+            }
+        }
+        return value;
+    }
+}
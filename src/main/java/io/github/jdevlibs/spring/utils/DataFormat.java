@@ -0,0 +1,106 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.utils;
+
+import java.util.Locale;
+
+/**
+ * <pre>
+ * The wire data formats of {@link JsonUtils}, the binary formats require the optional jackson dataformat
+ * library in classpath:
+ *  SMILE   com.fasterxml.jackson.dataformat:jackson-dataformat-smile
+ *  CBOR    com.fasterxml.jackson.dataformat:jackson-dataformat-cbor
+ *  MSGPACK org.msgpack:jackson-dataformat-msgpack
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public enum DataFormat {
+    JSON("application/json", "com.fasterxml.jackson.databind.json.JsonMapper",
+            "com.fasterxml.jackson.core:jackson-databind"),
+    SMILE("application/x-jackson-smile", "com.fasterxml.jackson.dataformat.smile.databind.SmileMapper",
+            "com.fasterxml.jackson.dataformat:jackson-dataformat-smile"),
+    CBOR("application/cbor", "com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper",
+            "com.fasterxml.jackson.dataformat:jackson-dataformat-cbor"),
+    MSGPACK("application/msgpack", "org.msgpack.jackson.dataformat.MessagePackMapper",
+            "org.msgpack:jackson-dataformat-msgpack");
+
+    private final String mediaType;
+    private final String mapperClass;
+    private final String artifact;
+    private volatile Boolean available;
+
+    DataFormat(String mediaType, String mapperClass, String artifact) {
+        this.mediaType = mediaType;
+        this.mapperClass = mapperClass;
+        this.artifact = artifact;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /** @return The maven artifact (groupId:artifactId) of format */
+    public String getArtifact() {
+        return artifact;
+    }
+
+    /**
+     * Check the library of format is in classpath
+     * @return true if the format can be used
+     */
+    public boolean isAvailable() {
+        Boolean result = available;
+        if (result == null) {
+            try {
+                Class.forName(mapperClass, false, DataFormat.class.getClassLoader());
+                result = Boolean.TRUE;
+            } catch (ClassNotFoundException | LinkageError ex) {
+                result = Boolean.FALSE;
+            }
+            available = result;
+        }
+        return result;
+    }
+
+    /**
+     * Find the format of media type, the parameters (e.g. charset) are ignored.
+     * @param mediaType The media type, e.g. application/cbor
+     * @return The format or null when media type is not a known format
+     */
+    public static DataFormat of(String mediaType) {
+        if (mediaType == null) {
+            return null;
+        }
+        int index = mediaType.indexOf(';');
+        String type = (index >= 0 ? mediaType.substring(0, index) : mediaType).trim().toLowerCase(Locale.ROOT);
+        switch (type) {
+            case "application/json":
+                return JSON;
+            case "application/x-jackson-smile":
+                return SMILE;
+            case "application/cbor":
+                return CBOR;
+            case "application/msgpack":
+            case "application/x-msgpack":
+                return MSGPACK;
+            default:
+                return null;
+        }
+    }
+}
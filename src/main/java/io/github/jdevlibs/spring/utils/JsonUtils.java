@@ -19,27 +19,43 @@
 package io.github.jdevlibs.spring.utils;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.json.JsonWriteFeature;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import com.fasterxml.jackson.databind.type.CollectionType;
 import com.fasterxml.jackson.databind.type.MapType;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.github.jdevlibs.spring.ConfigProperties;
 import io.github.jdevlibs.utils.Validators;
+import org.msgpack.jackson.dataformat.MessagePackMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * @author supot.jdev
@@ -48,16 +64,79 @@ import java.util.*;
 public final class JsonUtils {
     private static final JsonMapper mapper;
     private static final JsonMapper mapperJs;
+    private static final ObjectWriter compactWriter;
+    private static final ObjectWriter prettyWriter;
+    private static final ObjectWriter jsWriter;
+    private static final ObjectWriter jsPrettyWriter;
+    private static final ObjectWriter streamWriter;
+    private static final int cacheSize = ConfigProperties.getJsonCacheSize();
+    private static final LongAdder cacheEvictions = new LongAdder();
+    private static final BoundedCache<Object, ObjectReader> readers = new BoundedCache<>(cacheSize, cacheEvictions);
+    private static final BoundedCache<Class<?>, ObjectWriter> writers = new BoundedCache<>(cacheSize, cacheEvictions);
+    private static final BoundedCache<Class<?>, JavaType> listTypes = new BoundedCache<>(cacheSize, cacheEvictions);
+    private static final BoundedCache<Object, JavaType> types = new BoundedCache<>(cacheSize, cacheEvictions);
+    private static final LongAdder typeCacheHits = new LongAdder();
+    private static final LongAdder typeCacheMisses = new LongAdder();
     private static final Logger logger = LoggerFactory.getLogger(JsonUtils.class);
+    private static final String BLACKBIRD_MODULE = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+    private static final String AFTERBURNER_MODULE = "com.fasterxml.jackson.module.afterburner.AfterburnerModule";
+    private static final String NATIVE_IMAGE_PROPERTY = "org.graalvm.nativeimage.imagecode";
+    private static final Class<? extends Module> accessorModule = accessorModuleClass();
 
     private JsonUtils() {}
 
     static {
-        mapper = JsonMapper.builder().build();
-        mapperJs = JsonMapper.builder()
+        mapper = JsonMapper.builder(jsonFactory()).build();
+        mapperJs = JsonMapper.builder(jsonFactory())
                 .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS).build();
         mapperConfig(mapper, false);
         mapperConfig(mapperJs, true);
+        compactWriter = mapper.writer();
+        prettyWriter = mapper.writerWithDefaultPrettyPrinter();
+        jsWriter = mapperJs.writer().withoutFeatures(JsonWriteFeature.QUOTE_FIELD_NAMES);
+        jsPrettyWriter = mapperJs.writerWithDefaultPrettyPrinter().withoutFeatures(JsonWriteFeature.QUOTE_FIELD_NAMES);
+        streamWriter = compactWriter.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * <pre>
+     * Get the pre-resolved ObjectReader of class, the reader is cached per class
+     * and safe to hold and share between threads.
+     * </pre>
+     * @param clazz The class for deserializing.
+     * @return The ObjectReader of class
+     */
+    public static ObjectReader reader(Class<?> clazz) {
+        return cachedReader(clazz);
+    }
+
+    /**
+     * <pre>
+     * Get the pre-resolved ObjectReader of JavaType, the reader is cached per type
+     * and safe to hold and share between threads.
+     * </pre>
+     * @param type JavaType of deserialize.
+     * @return The ObjectReader of type
+     */
+    public static ObjectReader reader(JavaType type) {
+        return cachedReader(type);
+    }
+
+    /**
+     * <pre>
+     * Get the pre-resolved ObjectWriter of class, the writer is cached per class
+     * and safe to hold and share between threads.
+     * </pre>
+     * @param clazz The class for serializing.
+     * @return The ObjectWriter of class
+     */
+    public static ObjectWriter writer(Class<?> clazz) {
+        ObjectWriter writer = writers.get(clazz);
+        if (writer != null) {
+            return writer;
+        }
+
+        return writers.putIfAbsent(clazz, mapper.writerFor(clazz));
     }
 
     /**
@@ -79,11 +158,9 @@ public final class JsonUtils {
         String jsonData = null;
         try {
             if (prettyOutput) {
-                jsonData = mapperJs.writerWithDefaultPrettyPrinter().
-                        withoutFeatures(JsonWriteFeature.QUOTE_FIELD_NAMES).writeValueAsString(obj);
+                jsonData = jsPrettyWriter.writeValueAsString(obj);
             } else {
-                jsonData = mapperJs.writer()
-                        .withoutFeatures(JsonWriteFeature.QUOTE_FIELD_NAMES).writeValueAsString(obj);
+                jsonData = jsWriter.writeValueAsString(obj);
             }
         } catch (JsonProcessingException ex) {
             logger.error("jsonToJs", ex);
@@ -111,9 +188,9 @@ public final class JsonUtils {
         String jsonData = null;
         try {
             if (prettyOutput) {
-                jsonData = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(obj);
+                jsonData = prettyWriter.writeValueAsString(obj);
             } else {
-                jsonData = mapper.writeValueAsString(obj);
+                jsonData = compactWriter.writeValueAsString(obj);
             }
         } catch (JsonProcessingException ex) {
             logger.error("json", ex);
@@ -167,6 +244,19 @@ public final class JsonUtils {
         return models(json.getBytes(), clazz);
     }
 
+    /**
+     * <pre>
+     * Serialize object value to JSON data format directly into output stream.
+     * The output stream is flushed but not closed.
+     * </pre>
+     * @param out The target output stream.
+     * @param obj The object to serialize.
+     * @throws IOException If serialization fails or an I/O error occurs.
+     */
+    public static void write(OutputStream out, Object obj) throws IOException {
+        streamWriter.writeValue(out, obj);
+    }
+
     /**
      * Serialize object value to JSON data format
      * @param obj The object to serialize.
@@ -175,7 +265,7 @@ public final class JsonUtils {
     public static byte[] jsonAsBytes(Object obj) {
         byte[] jsonData = null;
         try {
-            jsonData = mapper.writeValueAsBytes(obj);
+            jsonData = compactWriter.writeValueAsBytes(obj);
         } catch (JsonProcessingException ex) {
             logger.error("jsonAsBytes", ex);
         }
@@ -196,7 +286,7 @@ public final class JsonUtils {
                 return null;
             }
 
-            return mapper.readValue(jsonData, clazz);
+            return reader(clazz).readValue(jsonData);
         } catch (IOException ex) {
             logger.error("model", ex);
         }
@@ -220,7 +310,7 @@ public final class JsonUtils {
                 return null;
             }
 
-            return mapper.readValue(jsonData, type);
+            return reader(type).readValue(jsonData);
         } catch (IOException ex) {
             logger.error("model", ex);
         }
@@ -228,6 +318,40 @@ public final class JsonUtils {
         return null;
     }
 
+    /**
+     * <pre>
+     * Deserialize JSON data format to Object class.
+     * In case need full generic type information
+     * </pre>
+     * @param <T> The type of class for deserializing.
+     * @param jsonData JSON byte[] data format.
+     * @param typeRef The type reference of deserialize.
+     * @return Object class
+     */
+    public static <T> T model(byte[] jsonData, TypeReference<T> typeRef) {
+        if (Validators.isNull(typeRef)) {
+            return null;
+        }
+        return model(jsonData, type(typeRef));
+    }
+
+    /**
+     * <pre>
+     * Deserialize JSON data format to Object class.
+     * In case need full generic type information
+     * </pre>
+     * @param <T> The type of class for deserializing.
+     * @param json JSON data format.
+     * @param typeRef The type reference of deserialize.
+     * @return Object class
+     */
+    public static <T> T model(String json, TypeReference<T> typeRef) {
+        if (Validators.isEmpty(json) || Validators.isNull(typeRef)) {
+            return null;
+        }
+        return model(json.getBytes(), type(typeRef));
+    }
+
     /**
      * Deserialize JSON data format to List of model.
      * @param <T> The type of class for deserializing.
@@ -241,15 +365,256 @@ public final class JsonUtils {
                 return Collections.emptyList();
             }
 
-            JavaType javaType = collectionType(List.class, clazz);
-            return mapper.readValue(jsonData, javaType);
+            JavaType javaType = listType(clazz);
+            return reader(javaType).readValue(jsonData);
+        } catch (IOException ex) {
+            logger.error("models", ex);
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * <pre>
+     * Deserialize JSON data format from input stream to Object class.
+     * The content is parsed while reading, without buffer whole content to byte[].
+     * </pre>
+     * @param <T> The type of class for deserializing.
+     * @param in JSON data input stream.
+     * @param clazz The class for deserializing.
+     * @return Object class or null when JSON data invalid.
+     * @throws IOException If an I/O error occurs while reading the stream.
+     */
+    public static <T> T model(InputStream in, Class<T> clazz) throws IOException {
+        try {
+            if (Validators.isNullOne(in, clazz)) {
+                return null;
+            }
+
+            return reader(clazz).readValue(in);
+        } catch (JsonProcessingException ex) {
+            logger.error("model", ex);
+        }
+
+        return null;
+    }
+
+    /**
+     * <pre>
+     * Deserialize JSON data format from input stream to Object class.
+     * In case need full generic type information
+     * </pre>
+     * @param <T> The type of class for deserializing.
+     * @param in JSON data input stream.
+     * @param type JavaType of deserialize.
+     * @return Object class or null when JSON data invalid.
+     * @throws IOException If an I/O error occurs while reading the stream.
+     */
+    public static <T> T model(InputStream in, JavaType type) throws IOException {
+        try {
+            if (Validators.isNullOne(in, type)) {
+                return null;
+            }
+
+            return reader(type).readValue(in);
+        } catch (JsonProcessingException ex) {
+            logger.error("model", ex);
+        }
+
+        return null;
+    }
+
+    /**
+     * Deserialize JSON data format from input stream to List of model.
+     * @param <T> The type of class for deserializing.
+     * @param in JSON data input stream, the content must be array.
+     * @param clazz The class for deserializing.
+     * @return List of model or empty list when JSON data invalid.
+     * @throws IOException If an I/O error occurs while reading the stream.
+     */
+    public static <T> List<T> models(InputStream in, Class<T> clazz) throws IOException {
+        try {
+            if (Validators.isNullOne(in, clazz)) {
+                return Collections.emptyList();
+            }
+
+            JavaType javaType = listType(clazz);
+            return reader(javaType).readValue(in);
+        } catch (JsonProcessingException ex) {
+            logger.error("models", ex);
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * <pre>
+     * Deserialize JSON array from input stream element by element.
+     * Only the current element is kept in memory, the caller must close the iterator
+     * for release the input stream.
+     * </pre>
+     * @param <T> The type of class for deserializing.
+     * @param in JSON data input stream, the content must be array or sequence of values.
+     * @param clazz The class for deserializing each element.
+     * @return The iterator of elements
+     * @throws IOException If an I/O error occurs or the content start is invalid.
+     */
+    public static <T> MappingIterator<T> iterator(InputStream in, Class<T> clazz) throws IOException {
+        return reader(clazz).readValues(in);
+    }
+
+    /**
+     * <pre>
+     * Get the mapper of data format, the binary mappers are created on first use with the same
+     * field visibility, date format and modules of JSON mapper.
+     * </pre>
+     * @param format The data format
+     * @return The mapper of format
+     * @throws IllegalStateException If the library of format is not in classpath
+     */
+    public static ObjectMapper mapper(DataFormat format) {
+        return format == DataFormat.JSON ? mapper : formatMapper(format).mapper;
+    }
+
+    /**
+     * Get the cached ObjectReader of class for data format.
+     * @param format The data format
+     * @param clazz The class for deserializing.
+     * @return The ObjectReader of class
+     */
+    public static ObjectReader reader(DataFormat format, Class<?> clazz) {
+        return format == DataFormat.JSON ? cachedReader(clazz) : formatMapper(format).reader(clazz);
+    }
+
+    /**
+     * Get the cached ObjectReader of JavaType for data format.
+     * @param format The data format
+     * @param type JavaType of deserialize.
+     * @return The ObjectReader of type
+     */
+    public static ObjectReader reader(DataFormat format, JavaType type) {
+        return format == DataFormat.JSON ? cachedReader(type) : formatMapper(format).reader(type);
+    }
+
+    /**
+     * Serialize object value to data format
+     * @param obj The object to serialize.
+     * @param format The data format
+     * @return Serialize value as byte[] arrays
+     */
+    public static byte[] asBytes(Object obj, DataFormat format) {
+        if (format == DataFormat.JSON) {
+            return jsonAsBytes(obj);
+        }
+
+        byte[] data = null;
+        try {
+            data = formatMapper(format).writer.writeValueAsBytes(obj);
+        } catch (JsonProcessingException ex) {
+            logger.error("asBytes", ex);
+        }
+        return data;
+    }
+
+    /**
+     * <pre>
+     * Serialize object value to data format directly into output stream.
+     * The output stream is flushed but not closed.
+     * </pre>
+     * @param out The target output stream.
+     * @param obj The object to serialize.
+     * @param format The data format
+     * @throws IOException If serialization fails or an I/O error occurs.
+     */
+    public static void write(OutputStream out, Object obj, DataFormat format) throws IOException {
+        if (format == DataFormat.JSON) {
+            write(out, obj);
+        } else {
+            formatMapper(format).writer.writeValue(out, obj);
+        }
+    }
+
+    /**
+     * Deserialize data format to Object class.
+     * @param <T> The type of class for deserializing.
+     * @param data The byte[] data of format.
+     * @param clazz The class for deserializing.
+     * @param format The data format
+     * @return Object class
+     */
+    public static <T> T model(byte[] data, Class<T> clazz, DataFormat format) {
+        try {
+            if (Validators.isEmpty(data)) {
+                return null;
+            }
+
+            return reader(format, clazz).readValue(data);
         } catch (IOException ex) {
+            logger.error("model", ex);
+        }
+
+        return null;
+    }
+
+    /**
+     * Deserialize data format from input stream to Object class.
+     * @param <T> The type of class for deserializing.
+     * @param in The input stream of format.
+     * @param clazz The class for deserializing.
+     * @param format The data format
+     * @return Object class or null when data invalid.
+     * @throws IOException If an I/O error occurs while reading the stream.
+     */
+    public static <T> T model(InputStream in, Class<T> clazz, DataFormat format) throws IOException {
+        try {
+            if (Validators.isNullOne(in, clazz)) {
+                return null;
+            }
+
+            return reader(format, clazz).readValue(in);
+        } catch (JsonProcessingException ex) {
+            logger.error("model", ex);
+        }
+
+        return null;
+    }
+
+    /**
+     * Deserialize data format from input stream to List of model.
+     * @param <T> The type of class for deserializing.
+     * @param in The input stream of format, the content must be array.
+     * @param clazz The class for deserializing.
+     * @param format The data format
+     * @return List of model or empty list when data invalid.
+     * @throws IOException If an I/O error occurs while reading the stream.
+     */
+    public static <T> List<T> models(InputStream in, Class<T> clazz, DataFormat format) throws IOException {
+        try {
+            if (Validators.isNullOne(in, clazz)) {
+                return Collections.emptyList();
+            }
+
+            return reader(format, listType(clazz)).readValue(in);
+        } catch (JsonProcessingException ex) {
             logger.error("models", ex);
         }
 
         return Collections.emptyList();
     }
 
+    /**
+     * Deserialize array of data format from input stream element by element.
+     * @param <T> The type of class for deserializing.
+     * @param in The input stream of format, the content must be array or sequence of values.
+     * @param clazz The class for deserializing each element.
+     * @param format The data format
+     * @return The iterator of elements
+     * @throws IOException If an I/O error occurs or the content start is invalid.
+     */
+    public static <T> MappingIterator<T> iterator(InputStream in, Class<T> clazz, DataFormat format) throws IOException {
+        return reader(format, clazz).readValues(in);
+    }
+
     /**
      * Deserialize JSON data format to Map class.
      * @param json json JSON data format.
@@ -310,7 +675,7 @@ public final class JsonUtils {
             }
 
             JavaType javaType = mapType(Map.class, keyClass, valueClass);
-            return mapper.readValue(jsonData, javaType);
+            return reader(javaType).readValue(jsonData);
         } catch (IOException ex) {
             logger.error("map", ex);
         }
@@ -320,17 +685,45 @@ public final class JsonUtils {
 
     /**
      * Create CollectionType {@link CollectionType} instance.
+     * The type is constructed once and cached for next call.
      * @param collClass The Collection class type
      * @param elementClazz The element of collection class type
      * @return {@link CollectionType}
      */
     @SuppressWarnings("rawtypes")
     public static JavaType collectionType(Class<? extends Collection> collClass, Class<?> elementClazz) {
-        return mapper.getTypeFactory().constructCollectionType(collClass, elementClazz);
+        if (collClass == List.class) {
+            return listType(elementClazz);
+        }
+
+        List<Class<?>> key = Arrays.asList(collClass, elementClazz);
+        JavaType type = cachedType(key);
+        if (type == null) {
+            type = cacheType(key, mapper.getTypeFactory().constructCollectionType(collClass, elementClazz));
+        }
+        return type;
+    }
+
+    /**
+     * Create CollectionType {@link CollectionType} of {@link List} instance.
+     * The type is constructed once and cached for next call.
+     * @param elementClazz The element of list class type
+     * @return {@link CollectionType}
+     */
+    public static JavaType listType(Class<?> elementClazz) {
+        JavaType type = listTypes.get(elementClazz);
+        if (type != null) {
+            typeCacheHits.increment();
+            return type;
+        }
+
+        typeCacheMisses.increment();
+        return listTypes.putIfAbsent(elementClazz, mapper.getTypeFactory().constructCollectionType(List.class, elementClazz));
     }
 
     /**
      * Create MapType {@link MapType} instance.
+     * The type is constructed once and cached for next call.
      * @param mapClass The class of map type
      * @param keyClass The class of map key
      * @param valueClass The class of map value
@@ -339,16 +732,125 @@ public final class JsonUtils {
     @SuppressWarnings("rawtypes")
     public static JavaType mapType(Class<? extends Map> mapClass,
                                    Class<?> keyClass, Class<?> valueClass) {
-        return mapper.getTypeFactory().constructMapType(mapClass, keyClass, valueClass);
+        List<Class<?>> key = Arrays.asList(mapClass, keyClass, valueClass);
+        JavaType type = cachedType(key);
+        if (type == null) {
+            type = cacheType(key, mapper.getTypeFactory().constructMapType(mapClass, keyClass, valueClass));
+        }
+        return type;
+    }
+
+    /**
+     * <pre>
+     * Create JavaType of full generic type, e.g. new TypeReference&lt;Map&lt;String, List&lt;Model&gt;&gt;&gt;() {}.
+     * The type is constructed once and cached for next call.
+     * </pre>
+     * @param typeRef The type reference of generic type
+     * @return {@link JavaType}
+     */
+    public static JavaType type(TypeReference<?> typeRef) {
+        return type(typeRef.getType());
+    }
+
+    /**
+     * Create JavaType of reflection type, the type is constructed once and cached for next call.
+     * @param javaType The reflection type, e.g. {@link java.lang.reflect.ParameterizedType}
+     * @return {@link JavaType}
+     */
+    public static JavaType type(Type javaType) {
+        JavaType type = cachedType(javaType);
+        if (type == null) {
+            type = cacheType(javaType, mapper.getTypeFactory().constructType(javaType));
+        }
+        return type;
     }
 
-    private static void mapperConfig(JsonMapper mapper, boolean jsMode) {
+    /**
+     * The number of JavaType lookup served from cache.
+     * @return The cache hit count
+     */
+    public static long typeCacheHitCount() {
+        return typeCacheHits.sum();
+    }
+
+    /**
+     * The number of JavaType lookup which constructed new type.
+     * @return The cache miss count
+     */
+    public static long typeCacheMissCount() {
+        return typeCacheMisses.sum();
+    }
+
+    /**
+     * The number of cached readers, writers and types evicted because the cache is full
+     * ({@link ConfigProperties#getJsonCacheSize()}), a growing count means the cache size is too small.
+     * @return The eviction count
+     */
+    public static long cacheEvictionCount() {
+        return cacheEvictions.sum();
+    }
+
+    private static JavaType cachedType(Object key) {
+        JavaType type = types.get(key);
+        if (type != null) {
+            typeCacheHits.increment();
+        } else {
+            typeCacheMisses.increment();
+        }
+        return type;
+    }
+
+    private static JavaType cacheType(Object key, JavaType type) {
+        return types.putIfAbsent(key, type);
+    }
+
+    private static ObjectReader cachedReader(Object key) {
+        ObjectReader reader = readers.get(key);
+        if (reader != null) {
+            return reader;
+        }
+
+        reader = key instanceof JavaType ? mapper.readerFor((JavaType) key) : mapper.readerFor((Class<?>) key);
+        return readers.putIfAbsent(key, reader);
+    }
+
+    private static FormatMapper formatMapper(DataFormat format) {
+        if (!format.isAvailable()) {
+            throw new IllegalStateException("Data format " + format + " requires " + format.getArtifact());
+        }
+        switch (format) {
+            case SMILE:
+                return SmileHolder.INSTANCE;
+            case CBOR:
+                return CborHolder.INSTANCE;
+            case MSGPACK:
+                return MessagePackHolder.INSTANCE;
+            default:
+                throw new IllegalArgumentException("Unsupported data format " + format);
+        }
+    }
+
+    private static JsonFactory jsonFactory() {
+        return JsonFactory.builder()
+                .configure(JsonFactory.Feature.USE_THREAD_LOCAL_FOR_BUFFER_RECYCLING,
+                        ConfigProperties.isJsonBufferRecycling())
+                .build();
+    }
+
+    private static void mapperConfig(ObjectMapper mapper, boolean jsMode) {
         mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         mapper.setDateFormat(new SimpleDateFormat(ConfigProperties.getJsonDateFormat()));
         mapper.registerModule(new JavaTimeModule());
         if (jsMode) {
             mapper.registerModule(createEnumModule());
         }
+        if (accessorModule != null) {
+            try {
+                mapper.registerModule(accessorModule.getDeclaredConstructor().newInstance());
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                logger.warn("Register json accessor module error, use reflective access : {}", ex.toString());
+            }
+        }
 
         // Only serialization class attributes or member
         // ignore all get/set and isMethod.
@@ -360,6 +862,35 @@ public final class JsonUtils {
                 .withIsGetterVisibility(Visibility.NONE));
     }
 
+    /**
+     * Resolve the generated accessor module of {@link ConfigProperties#getJsonAccessorModule()} by reflection,
+     * the mappers fall back to reflective access when the module is not in classpath or in native image.
+     * The module itself falls back per property when the class is not accessible (e.g. JPMS not opened).
+     * @return The class of accessor module or null
+     */
+    private static Class<? extends Module> accessorModuleClass() {
+        String name = ConfigProperties.getJsonAccessorModule().trim().toLowerCase(Locale.ROOT);
+        String className;
+        if ("blackbird".equals(name)) {
+            className = BLACKBIRD_MODULE;
+        } else if ("afterburner".equals(name)) {
+            className = AFTERBURNER_MODULE;
+        } else {
+            return null;
+        }
+        if (System.getProperty(NATIVE_IMAGE_PROPERTY) != null) {
+            logger.debug("Json accessor module {} is disabled in native image", name);
+            return null;
+        }
+
+        try {
+            return Class.forName(className).asSubclass(Module.class);
+        } catch (ClassNotFoundException | LinkageError | ClassCastException ex) {
+            logger.warn("Json accessor module {} is not available, use reflective access : {}", name, ex.toString());
+            return null;
+        }
+    }
+
     private static SimpleModule createEnumModule() {
         SimpleModule module = new SimpleModule();
         module.addSerializer(String.class, new StdSerializer<>(String.class) {
@@ -393,4 +924,46 @@ public final class JsonUtils {
 
         return module;
     }
+
+    /**
+     * The mapper of binary data format with cached readers, the dataformat classes are loaded
+     * only when the holder of format is used.
+     */
+    private static final class FormatMapper {
+        private final ObjectMapper mapper;
+        private final ObjectWriter writer;
+        private final BoundedCache<Object, ObjectReader> readers = new BoundedCache<>(cacheSize, cacheEvictions);
+
+        private FormatMapper(ObjectMapper mapper) {
+            mapperConfig(mapper, false);
+            this.mapper = mapper;
+            this.writer = mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        private ObjectReader reader(Object key) {
+            ObjectReader reader = readers.get(key);
+            if (reader != null) {
+                return reader;
+            }
+
+            reader = key instanceof JavaType ? mapper.readerFor((JavaType) key) : mapper.readerFor((Class<?>) key);
+            return readers.putIfAbsent(key, reader);
+        }
+    }
+
+    private static final class SmileHolder {
+        private static final FormatMapper INSTANCE = new FormatMapper(SmileMapper.builder(SmileFactory.builder()
+                .configure(JsonFactory.Feature.USE_THREAD_LOCAL_FOR_BUFFER_RECYCLING, ConfigProperties.isJsonBufferRecycling())
+                .build()).build());
+    }
+
+    private static final class CborHolder {
+        private static final FormatMapper INSTANCE = new FormatMapper(CBORMapper.builder(CBORFactory.builder()
+                .configure(JsonFactory.Feature.USE_THREAD_LOCAL_FOR_BUFFER_RECYCLING, ConfigProperties.isJsonBufferRecycling())
+                .build()).build());
+    }
+
+    private static final class MessagePackHolder {
+        private static final FormatMapper INSTANCE = new FormatMapper(new MessagePackMapper());
+    }
 }
\ No newline at end of file
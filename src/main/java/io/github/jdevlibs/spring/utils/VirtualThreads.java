@@ -0,0 +1,67 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <pre>
+ * Support of virtual threads (Java 21+). This is the Java 11 implementation, the multi-release JAR
+ * contains the Java 21 implementation in META-INF/versions/21 which uses virtual threads.
+ * On Java 11 - 20 the executor falls back to cached pool of daemon platform threads.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    /**
+     * @return true if the runtime supports virtual threads
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Create thread factory
+     * @param name The prefix of thread name
+     * @return The thread factory of virtual threads, or daemon platform threads on Java 11 - 20
+     */
+    public static ThreadFactory threadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Create executor which runs each task on a new thread
+     * @param name The prefix of thread name
+     * @return The executor of virtual threads, or cached pool of platform threads on Java 11 - 20
+     */
+    public static ExecutorService newExecutor(String name) {
+        return Executors.newCachedThreadPool(threadFactory(name));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <pre>
+ * Support of virtual threads, the Java 21 implementation of multi-release JAR.
+ * </pre>
+ * @author supot.jdev
+ * @version 1.0
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    /**
+     * @return true if the runtime supports virtual threads
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * Create thread factory
+     * @param name The prefix of thread name
+     * @return The thread factory of virtual threads
+     */
+    public static ThreadFactory threadFactory(String name) {
+        return Thread.ofVirtual().name(name + "-", 1).factory();
+    }
+
+    /**
+     * Create executor which runs each task on a new thread
+     * @param name The prefix of thread name
+     * @return The executor of virtual threads
+     */
+    public static ExecutorService newExecutor(String name) {
+        return Executors.newThreadPerTaskExecutor(threadFactory(name));
+    }
+}
@@ -0,0 +1,386 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client;
+
+import io.github.jdevlibs.spring.ConfigProperties;
+import io.github.jdevlibs.spring.client.batch.BatchCall;
+import io.github.jdevlibs.spring.client.batch.BatchOptions;
+import io.github.jdevlibs.spring.client.batch.BatchResult;
+import io.github.jdevlibs.spring.client.request.GetRequest;
+import io.github.jdevlibs.spring.client.request.JsonRequest;
+import io.github.jdevlibs.spring.client.resilience.AimdLimit;
+import io.github.jdevlibs.spring.client.resilience.CircuitBreaker;
+import io.github.jdevlibs.spring.client.resilience.CircuitBreakerConfig;
+import io.github.jdevlibs.spring.client.resilience.CircuitBreakerRegistry;
+import io.github.jdevlibs.spring.client.resilience.ConcurrencyLimiterRegistry;
+import io.github.jdevlibs.spring.client.resilience.HedgePolicy;
+import io.github.jdevlibs.spring.client.resilience.RateLimiterRegistry;
+import io.github.jdevlibs.spring.client.resilience.RetryBudget;
+import io.github.jdevlibs.spring.client.resilience.RetryPolicy;
+import io.github.jdevlibs.spring.exception.ClientApiException;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class OkHttpClientAdapterTest {
+    private MockWebServer server;
+    private OkHttpClient client;
+    private TestAdapter adapter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = new OkHttpClient();
+        adapter = new TestAdapter();
+        adapter.autowiredHttpClient(client);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    private String url(String path) {
+        return server.url(path).toString();
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+
+    @Test
+    void consumedStreamReleasesConnectionWithoutClose() throws Exception {
+        server.enqueue(new MockResponse().setHeader("Content-Type", "application/json")
+                .setChunkedBody("[{\"id\":1},{\"id\":2},{\"id\":3}]", 8));
+
+        long count = adapter.getResultAsStream(url("/items"), Item.class).count();
+        assertEquals(3, count);
+        assertEquals(1, client.connectionPool().idleConnectionCount());
+    }
+
+    @Test
+    void failedStreamReleasesConnectionWithoutClose() throws Exception {
+        server.enqueue(new MockResponse().setHeader("Content-Type", "application/json")
+                .setChunkedBody("[{\"id\":1},{\"id\":\"x\"},{\"id\":3}]", 8));
+
+        Stream<Item> stream = adapter.getResultAsStream(url("/items"), Item.class);
+        assertThrows(ClientApiException.class, stream::count);
+        assertEquals(0, client.connectionPool().connectionCount() - client.connectionPool().idleConnectionCount());
+    }
+
+    @Test
+    void closedStreamReleasesConnection() throws Exception {
+        server.enqueue(json("[{\"id\":1},{\"id\":2},{\"id\":3}]"));
+
+        try (Stream<Item> stream = adapter.getResultAsStream(url("/items"), Item.class)) {
+            assertEquals(1, stream.findFirst().orElseThrow().id);
+        }
+        assertEquals(0, client.connectionPool().connectionCount() - client.connectionPool().idleConnectionCount());
+    }
+
+    @Test
+    void modelBodyHasContentLengthAndIsResentOnRetry() throws Exception {
+        adapter.setRetryPolicy(retryPolicy());
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(json("{\"id\":7}"));
+
+        Item item = adapter.put(url("/items/7"), jsonRequest(new Item(7, "name")), Item.class);
+        assertEquals(7, item.id);
+
+        RecordedRequest first = server.takeRequest();
+        RecordedRequest retry = server.takeRequest();
+        assertEquals("{\"id\":7,\"name\":\"name\"}", first.getBody().readUtf8());
+        assertEquals("{\"id\":7,\"name\":\"name\"}", retry.getBody().readUtf8());
+        assertEquals(String.valueOf(first.getBodySize()), first.getHeader("Content-Length"));
+        assertEquals(first.getHeader("Content-Length"), retry.getHeader("Content-Length"));
+    }
+
+    @Test
+    void largeModelBodyIsStreamedOnEveryAttempt() throws Exception {
+        adapter.setRetryPolicy(retryPolicy());
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(json("{\"id\":7}"));
+
+        String name = String.join("", Collections.nCopies(ConfigProperties.getJsonBodyBufferSize() + 1, "x"));
+        adapter.put(url("/items/7"), jsonRequest(new Item(7, name)), Item.class);
+
+        RecordedRequest first = server.takeRequest();
+        RecordedRequest retry = server.takeRequest();
+        assertEquals("chunked", first.getHeader("Transfer-Encoding"));
+        assertEquals("chunked", retry.getHeader("Transfer-Encoding"));
+        assertEquals(first.getBody().readUtf8(), retry.getBody().readUtf8());
+    }
+
+    @Test
+    void retryWaitsForRetryAfter() throws Exception {
+        adapter.setRetryPolicy(retryPolicy());
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "1"));
+        server.enqueue(json("{\"id\":1}"));
+
+        long start = System.nanoTime();
+        assertEquals(1, adapter.get(url("/items/1"), Item.class).id);
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 1000);
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, adapter.getRetryCount());
+    }
+
+    @Test
+    void retryAfterAboveMaxReturnsResponse() {
+        RetryPolicy policy = retryPolicy();
+        policy.setMaxRetryAfter(Duration.ofSeconds(1));
+        adapter.setRetryPolicy(policy);
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "60"));
+
+        ClientApiException ex = assertThrows(ClientApiException.class, () -> adapter.get(url("/items/1"), Item.class));
+        assertEquals(503, ex.getHttpCode());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void requestRetryPolicyWithoutAdapterPolicy() {
+        assertEquals(0, adapter.getRetryCount());
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(json("{\"id\":1}"));
+
+        GetRequest request = new GetRequest();
+        request.setRetryPolicy(retryPolicy());
+        assertEquals(1, adapter.get(url("/items/1"), request, Item.class).id);
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, adapter.getRetryCount());
+    }
+
+    @Test
+    void connectionResetIsRetriedByDefault() {
+        TestAdapter noRecover = new TestAdapter();
+        noRecover.autowiredHttpClient(client.newBuilder().retryOnConnectionFailure(false).build());
+        noRecover.setRetryPolicy(retryPolicy());
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+        server.enqueue(json("{\"id\":1}"));
+
+        assertEquals(1, noRecover.get(url("/items/1"), Item.class).id);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void connectionResetIsClassifiedAsApiError() {
+        TestAdapter noRecover = new TestAdapter();
+        noRecover.autowiredHttpClient(client.newBuilder().retryOnConnectionFailure(false).build());
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+
+        ClientApiException ex = assertThrows(ClientApiException.class, () -> noRecover.get(url("/items/1"), Item.class));
+        assertTrue(ex.isConnectionReset());
+        assertTrue(ex.isApiError());
+    }
+
+    @Test
+    void otherErrorIsNotRetriedByDefault() {
+        adapter.setRetryPolicy(retryPolicy());
+        server.enqueue(new MockResponse().setStatus("HTTP/1.1 abc"));
+        server.enqueue(json("{\"id\":1}"));
+
+        ClientApiException ex = assertThrows(ClientApiException.class, () -> adapter.get(url("/items/1"), Item.class));
+        assertEquals(ClientApiException.ClientApiErrorCodes.CODE_API_ERROR, ex.getError());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void batchDeadlineCancelsUnfinishedCallsAsCallTimeout() {
+        server.enqueue(json("{\"id\":1}"));
+        server.enqueue(json("{\"id\":2}").setHeadersDelay(2, TimeUnit.SECONDS));
+
+        BatchOptions options = BatchOptions.of(1);
+        options.setDeadline(Duration.ofMillis(300));
+        List<BatchResult<Item>> results = adapter.executeAll(Arrays.asList(
+                BatchCall.get(url("/items/1"), new GetRequest(), Item.class),
+                BatchCall.get(url("/items/2"), new GetRequest(), Item.class),
+                BatchCall.get(url("/items/3"), new GetRequest(), Item.class)), options);
+
+        assertEquals(1, results.get(0).getValue().id);
+        assertTrue(results.get(1).getError().isCallTimeout());
+        assertTrue(results.get(2).getError().isCallTimeout());
+    }
+
+    @Test
+    void blockingHedgeWinsOverSlowFirstRequest() {
+        adapter.setHedgePolicy(new HedgePolicy(Duration.ofMillis(100), 0, new RetryBudget(1, 10)));
+        server.enqueue(json("{\"id\":1}").setHeadersDelay(2, TimeUnit.SECONDS));
+        server.enqueue(json("{\"id\":2}"));
+
+        assertEquals(2, adapter.get(url("/items/1"), Item.class).id);
+        assertEquals(1, adapter.getHedgePolicy().getHedgeWinCount());
+    }
+
+    @Test
+    void asyncHedgeFailsWhenHedgeIsRejectedAfterFirstFailure() {
+        adapter.setHedgePolicy(new HedgePolicy(Duration.ofMillis(50), 0, new RetryBudget(1, 10)) {
+            @Override
+            public boolean tryHedge() {
+                // the first request fails while the hedge is being decided
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return false;
+            }
+        });
+        server.enqueue(new MockResponse().setResponseCode(500).setHeadersDelay(200, TimeUnit.MILLISECONDS));
+
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> adapter.getAsync(url("/items/1"), Item.class).get(5, TimeUnit.SECONDS));
+        assertEquals(500, ((ClientApiException) ex.getCause()).getHttpCode());
+    }
+
+    @Test
+    void rateLimitWaitIsNotSlowCallOfCircuitBreaker() {
+        CircuitBreakerConfig config = new CircuitBreakerConfig();
+        config.setMinimumCalls(2);
+        config.setSlowCallRateThreshold(50);
+        config.setSlowCallDuration(Duration.ofMillis(300));
+        CircuitBreakerRegistry breakers = new CircuitBreakerRegistry(config);
+        adapter.setCircuitBreakerRegistry(breakers);
+        adapter.setRateLimiterRegistry(new RateLimiterRegistry(Duration.ofSeconds(5))
+                .addLimit(server.getHostName(), 2, 1));
+        server.enqueue(json("{\"id\":1}"));
+        server.enqueue(json("{\"id\":2}"));
+
+        adapter.get(url("/items/1"), Item.class);
+        adapter.get(url("/items/2"), Item.class);
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.getCircuitBreakers().iterator().next().getState());
+    }
+
+    @Test
+    void concurrencyLimitWaitIsNotSlowCallOfCircuitBreaker() throws Exception {
+        CircuitBreakerConfig config = new CircuitBreakerConfig();
+        config.setMinimumCalls(2);
+        config.setSlowCallRateThreshold(50);
+        config.setSlowCallDuration(Duration.ofMillis(300));
+        CircuitBreakerRegistry breakers = new CircuitBreakerRegistry(config);
+        adapter.setCircuitBreakerRegistry(breakers);
+        adapter.setConcurrencyLimiterRegistry(new ConcurrencyLimiterRegistry(() -> {
+            AimdLimit limit = new AimdLimit();
+            limit.setInitialLimit(1);
+            limit.setMaxLimit(1);
+            return limit;
+        }, 1, Duration.ofSeconds(5)));
+        server.enqueue(json("{\"id\":1}").setHeadersDelay(200, TimeUnit.MILLISECONDS));
+        server.enqueue(json("{\"id\":2}").setHeadersDelay(200, TimeUnit.MILLISECONDS));
+
+        CompletableFuture<Item> first = adapter.getAsync(url("/items/1"), Item.class);
+        CompletableFuture<Item> second = adapter.getAsync(url("/items/2"), Item.class);
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.getCircuitBreakers().iterator().next().getState());
+    }
+
+    @Test
+    void downloadResumesPartFileByRangeAndIfRange() throws Exception {
+        Path dir = Files.createTempDirectory("download");
+        Path target = dir.resolve("export.csv");
+        Files.write(dir.resolve("export.csv.part"), "hello ".getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("export.csv.part.meta"),
+                "validator=\"v1\"\nlength=11\n".getBytes(StandardCharsets.UTF_8));
+        server.enqueue(new MockResponse().setResponseCode(206)
+                .setHeader("ETag", "\"v1\"")
+                .setHeader("Content-Range", "bytes 6-10/11")
+                .setBody("world"));
+
+        assertEquals(11, adapter.downloadTo(url("/export"), new GetRequest(), target));
+        assertEquals("hello world", new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(dir.resolve("export.csv.part")));
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("bytes=6-", request.getHeader("Range"));
+        assertEquals("\"v1\"", request.getHeader("If-Range"));
+        assertEquals("identity", request.getHeader("Accept-Encoding"));
+        assertNull(request.getHeader("Cache-Control"));
+    }
+
+    @Test
+    void downloadStartsOverWhenRangeIsIgnored() throws Exception {
+        Path dir = Files.createTempDirectory("download");
+        Path target = dir.resolve("export.csv");
+        Files.write(dir.resolve("export.csv.part"), "stale ".getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("export.csv.part.meta"),
+                "validator=\"v1\"\nlength=11\n".getBytes(StandardCharsets.UTF_8));
+        server.enqueue(new MockResponse().setHeader("ETag", "\"v2\"").setBody("hello world"));
+
+        assertEquals(11, adapter.downloadTo(url("/export"), new GetRequest(), target));
+        assertEquals("hello world", new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+        assertEquals("bytes=6-", server.takeRequest().getHeader("Range"));
+    }
+
+    private static RetryPolicy retryPolicy() {
+        RetryPolicy policy = new RetryPolicy();
+        policy.setInitialBackoff(Duration.ofMillis(1));
+        return policy;
+    }
+
+    private static JsonRequest<Item> jsonRequest(Item item) {
+        JsonRequest<Item> request = new JsonRequest<>();
+        request.setModel(item);
+        return request;
+    }
+
+    static final class TestAdapter extends OkHttpClientAdapter {
+        @Override
+        protected void autowiredHttpClient(OkHttpClient httpClient) {
+            setHttpClient(httpClient);
+        }
+    }
+
+    static final class Item {
+        private int id;
+        private String name;
+
+        Item() {
+        }
+
+        Item(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.cache;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class DiskStoreTest {
+
+    private static CacheEntry entry(String key, int bodyLength) {
+        Request request = new Request.Builder().url(key).build();
+        Response response = new Response.Builder().request(request).protocol(Protocol.HTTP_1_1)
+                .code(200).message("OK").build();
+        return CacheEntry.of(key, request, response, new byte[bodyLength]);
+    }
+
+    @Test
+    void concurrentWritesAndDeletesOfSameKeyKeepSizeExact() throws Exception {
+        Path directory = Files.createTempDirectory("disk-store");
+        DiskStore store = new DiskStore(directory, 1024 * 1024);
+        String key = "http://localhost/items";
+
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int thread = i;
+            writes.add(CompletableFuture.runAsync(() -> {
+                for (int n = 0; n < 50; n++) {
+                    if (n % 7 == 0) {
+                        store.remove(key);
+                    } else {
+                        store.write(entry(key, 100 + thread * 10 + n), () -> true);
+                    }
+                }
+            }));
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+
+        long expected;
+        try (Stream<Path> files = Files.list(directory)) {
+            expected = files.mapToLong(file -> file.toFile().length()).sum();
+        }
+        assertEquals(expected, store.size());
+    }
+
+    @Test
+    void outdatedEntryIsNotWritten() throws Exception {
+        DiskStore store = new DiskStore(Files.createTempDirectory("disk-store"), 1024 * 1024);
+        store.write(entry("http://localhost/items", 10), () -> false);
+        assertEquals(0, store.size());
+        assertNull(store.read("http://localhost/items"));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.cache;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class HttpResponseCacheTest {
+    private MockWebServer server;
+    private OkHttpClient baseClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        baseClient = new OkHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+        baseClient.dispatcher().executorService().shutdown();
+    }
+
+    private OkHttpClient client(HttpResponseCache cache) {
+        ResponseCacheInterceptor interceptor = new ResponseCacheInterceptor(cache);
+        OkHttpClient client = baseClient.newBuilder().addInterceptor(interceptor).build();
+        interceptor.setClient(client);
+        return client;
+    }
+
+    private String get(OkHttpClient client) throws IOException {
+        try (Response response = client.newCall(new Request.Builder().url(server.url("/items")).build()).execute()) {
+            return response.body().string();
+        }
+    }
+
+    @Test
+    void freshResponseIsServedWithoutNetwork() throws Exception {
+        HttpResponseCache cache = new HttpResponseCache(1024 * 1024);
+        OkHttpClient client = client(cache);
+        server.enqueue(new MockResponse().setHeader("Cache-Control", "max-age=60").setBody("hello"));
+
+        assertEquals("hello", get(client));
+        assertEquals("hello", get(client));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(5, cache.getBytesSaved());
+    }
+
+    @Test
+    void notModifiedMergesHeadersIntoCachedBody() throws Exception {
+        HttpResponseCache cache = new HttpResponseCache(1024 * 1024);
+        OkHttpClient client = client(cache);
+        server.enqueue(new MockResponse().setHeader("Cache-Control", "max-age=0").setHeader("ETag", "\"v1\"")
+                .setBody("hello"));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("Cache-Control", "max-age=60"));
+
+        assertEquals("hello", get(client));
+        assertEquals("hello", get(client));
+        RecordedRequest first = server.takeRequest();
+        RecordedRequest conditional = server.takeRequest();
+        assertNull(first.getHeader("If-None-Match"));
+        assertEquals("\"v1\"", conditional.getHeader("If-None-Match"));
+        assertEquals(1, cache.getRevalidatedCount());
+
+        // the max-age of 304 is merged, the entry is fresh now
+        assertEquals("hello", get(client));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void staleWhileRevalidateServesStaleAndRevalidatesInBackground() throws Exception {
+        HttpResponseCache cache = new HttpResponseCache(1024 * 1024);
+        OkHttpClient client = client(cache);
+        server.enqueue(new MockResponse().setHeader("Cache-Control", "max-age=0, stale-while-revalidate=60")
+                .setHeader("ETag", "\"v1\"").setBody("hello"));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("Cache-Control", "max-age=60"));
+
+        assertEquals("hello", get(client));
+        assertEquals("hello", get(client));
+        assertEquals(1, cache.getStaleHitCount());
+
+        server.takeRequest();
+        RecordedRequest revalidate = server.takeRequest(5, TimeUnit.SECONDS);
+        assertNotNull(revalidate);
+        assertEquals("\"v1\"", revalidate.getHeader("If-None-Match"));
+    }
+
+    @Test
+    void unsafeRequestInvalidatesCachedResponse() throws Exception {
+        HttpResponseCache cache = new HttpResponseCache(1024 * 1024);
+        OkHttpClient client = client(cache);
+        server.enqueue(new MockResponse().setHeader("Cache-Control", "max-age=60").setBody("v1"));
+        server.enqueue(new MockResponse().setResponseCode(204));
+        server.enqueue(new MockResponse().setHeader("Cache-Control", "max-age=60").setBody("v2"));
+
+        assertEquals("v1", get(client));
+        client.newCall(new Request.Builder().url(server.url("/items")).delete().build()).execute().close();
+        assertEquals("v2", get(client));
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    void diskTierIsWrittenInBackgroundAndReadByNewCache() throws Exception {
+        Path directory = Files.createTempDirectory("http-cache");
+        HttpResponseCache cache = new HttpResponseCache(1024 * 1024, directory, 1024 * 1024);
+        server.enqueue(new MockResponse().setHeader("Cache-Control", "max-age=60").setBody("hello"));
+        assertEquals("hello", get(client(cache)));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.getDiskSize() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(cache.getDiskSize() > 0);
+
+        HttpResponseCache reopened = new HttpResponseCache(1024 * 1024, directory, 1024 * 1024);
+        assertEquals(cache.getDiskSize(), reopened.getDiskSize());
+        assertEquals("hello", get(client(reopened)));
+        assertEquals(1, server.getRequestCount());
+        reopened.evictAll();
+        assertEquals(0, reopened.getDiskSize());
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.cache;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class RequestCoalescerTest {
+    private MockWebServer server;
+    private RequestCoalescer coalescer;
+    private OkHttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        coalescer = new RequestCoalescer();
+        client = new OkHttpClient.Builder().addInterceptor(coalescer).build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+        client.dispatcher().executorService().shutdown();
+    }
+
+    private Request.Builder request() {
+        return new Request.Builder().url(server.url("/items"));
+    }
+
+    private CompletableFuture<String> execute(Call call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Response response = call.execute()) {
+                return response.body().string();
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+    }
+
+    /**
+     * Start the leader call and wait until the server has received it, so the next call joins the flight.
+     */
+    private CompletableFuture<String> lead(Call call) throws InterruptedException {
+        CompletableFuture<String> leader = execute(call);
+        assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+        return leader;
+    }
+
+    @Test
+    void identicalRequestsShareOneCall() throws Exception {
+        server.enqueue(new MockResponse().setHeadersDelay(300, TimeUnit.MILLISECONDS).setBody("shared"));
+
+        CompletableFuture<String> leader = lead(client.newCall(request().build()));
+        CompletableFuture<String> waiter = execute(client.newCall(request().build()));
+
+        assertEquals("shared", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("shared", waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    void requestsWithDifferentHeadersAreNotCoalesced() throws Exception {
+        server.enqueue(new MockResponse().setHeadersDelay(300, TimeUnit.MILLISECONDS).setBody("json"));
+        server.enqueue(new MockResponse().setBody("range"));
+
+        CompletableFuture<String> leader = lead(client.newCall(request().header("Accept", "application/json").build()));
+        CompletableFuture<String> other = execute(client.newCall(request().header("Accept", "application/json")
+                .header("Range", "bytes=0-1").build()));
+
+        assertEquals("json", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("range", other.get(5, TimeUnit.SECONDS));
+        assertEquals(2, server.getRequestCount());
+        assertEquals(0, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    void ignoredHeadersAreNotPartOfIdentity() throws Exception {
+        server.enqueue(new MockResponse().setHeadersDelay(300, TimeUnit.MILLISECONDS).setBody("shared"));
+
+        CompletableFuture<String> leader = lead(client.newCall(request().header("X-Request-Id", "1").build()));
+        CompletableFuture<String> waiter = execute(client.newCall(request().header("X-Request-Id", "2").build()));
+
+        assertEquals("shared", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("shared", waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void waiterTakesOverWhenLeaderIsCancelled() throws Exception {
+        server.enqueue(new MockResponse().setHeadersDelay(2, TimeUnit.SECONDS).setBody("cancelled"));
+        server.enqueue(new MockResponse().setBody("takeover"));
+
+        Call leaderCall = client.newCall(request().build());
+        CompletableFuture<String> leader = lead(leaderCall);
+        CompletableFuture<String> waiter = execute(client.newCall(request().build()));
+        Thread.sleep(100);
+        leaderCall.cancel();
+
+        assertEquals("takeover", waiter.get(5, TimeUnit.SECONDS));
+        assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertEquals(2, coalescer.getCallCount());
+    }
+
+    @Test
+    void bypassedRequestIsNotCoalesced() throws Exception {
+        server.enqueue(new MockResponse().setHeadersDelay(300, TimeUnit.MILLISECONDS).setBody("first"));
+        server.enqueue(new MockResponse().setBody("second"));
+
+        CompletableFuture<String> leader = lead(client.newCall(request().build()));
+        CompletableFuture<String> bypass = execute(client.newCall(request()
+                .tag(CacheBypass.class, CacheBypass.INSTANCE).build()));
+
+        assertEquals("first", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("second", bypass.get(5, TimeUnit.SECONDS));
+        assertEquals(2, server.getRequestCount());
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.cache;
+
+import io.github.jdevlibs.spring.client.request.GetRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class ResultCacheTest {
+    private static final String URL = "http://localhost/api/user";
+
+    private static GetRequest request(String... parameters) {
+        GetRequest request = new GetRequest();
+        for (int i = 0; i < parameters.length; i += 2) {
+            request.addParameter(parameters[i], parameters[i + 1]);
+        }
+        return request;
+    }
+
+    private static String get(ResultCache cache, String url, GetRequest request, String value) {
+        return cache.get(url, request, String.class, () -> value, () -> CompletableFuture.completedFuture(value));
+    }
+
+    @Test
+    void servesCachedValueWithinTtl() {
+        ResultCache cache = new ResultCache(10);
+        cache.addEndpoint(URL, Duration.ofMinutes(1), null);
+
+        assertEquals("first", get(cache, URL, request("id", "1"), "first"));
+        assertEquals("first", get(cache, URL, request("id", "1"), "second"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void parameterValuesWithSeparatorsDoNotCollide() {
+        ResultCache cache = new ResultCache(10);
+        cache.addEndpoint(URL, Duration.ofMinutes(1), null);
+
+        assertEquals("joined", get(cache, URL, request("a", "1&b=2"), "joined"));
+        assertEquals("split", get(cache, URL, request("a", "1", "b", "2"), "split"));
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void endpointMatchesOnPathSegmentBoundary() {
+        ResultCache cache = new ResultCache(10);
+        cache.addEndpoint(URL, Duration.ofMinutes(1), null);
+
+        assertTrue(cache.isCacheable(URL));
+        assertTrue(cache.isCacheable(URL + "/1"));
+        assertTrue(cache.isCacheable(URL + "?id=1"));
+        assertFalse(cache.isCacheable(URL + "s"));
+    }
+
+    @Test
+    void invalidateMatchesOnPathSegmentBoundary() {
+        ResultCache cache = new ResultCache(10);
+        cache.addEndpoint("http://localhost/api", Duration.ofMinutes(1), null);
+        get(cache, URL, request("id", "1"), "user");
+        get(cache, URL + "s", request(), "users");
+
+        cache.invalidate(URL);
+        assertEquals("new", get(cache, URL, request("id", "1"), "new"));
+        assertEquals("users", get(cache, URL + "s", request(), "new"));
+    }
+
+    @Test
+    void staleValueIsServedWhileRefreshRuns() throws Exception {
+        ResultCache cache = new ResultCache(10);
+        cache.addEndpoint(URL, Duration.ofMillis(1), Duration.ofMinutes(1));
+        get(cache, URL, request(), "first");
+        Thread.sleep(5);
+
+        CompletableFuture<String> refresh = new CompletableFuture<>();
+        AtomicInteger refreshes = new AtomicInteger();
+        assertEquals("first", cache.get(URL, request(), String.class, () -> "blocking", () -> {
+            refreshes.incrementAndGet();
+            return refresh;
+        }));
+        assertEquals("first", cache.get(URL, request(), String.class, () -> "blocking", () -> {
+            refreshes.incrementAndGet();
+            return refresh;
+        }));
+        assertEquals(1, refreshes.get());
+        assertEquals(2, cache.getStaleHitCount());
+
+        refresh.complete("second");
+        assertEquals("second", get(cache, URL, request(), "third"));
+    }
+
+    @Test
+    void credentialRequestIsNotCachedUnlessKeyHeader() {
+        ResultCache cache = new ResultCache(10);
+        cache.addEndpoint(URL, Duration.ofMinutes(1), null);
+        GetRequest request = request();
+        request.authorizationBearer("token");
+        assertFalse(cache.isCacheable(URL, request));
+
+        cache.setKeyHeaders("Authorization");
+        assertTrue(cache.isCacheable(URL, request));
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.compression;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSource;
+import okio.Okio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class CompressionInterceptorTest {
+    private static final MediaType TYPE_TEXT = MediaType.get("text/plain");
+    private static final long THRESHOLD = 64;
+
+    private MockWebServer server;
+    private CompressionInterceptor interceptor;
+    private OkHttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        interceptor = new CompressionInterceptor(new GzipCodec(), THRESHOLD);
+        client = new OkHttpClient.Builder().addInterceptor(interceptor).build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+        client.dispatcher().executorService().shutdown();
+    }
+
+    private RecordedRequest post(RequestBody body) throws Exception {
+        server.enqueue(new MockResponse());
+        try (Response response = client.newCall(new Request.Builder().url(server.url("/")).post(body).build()).execute()) {
+            assertEquals(200, response.code());
+        }
+        return server.takeRequest();
+    }
+
+    private static String text(long size) {
+        return String.join("", Collections.nCopies((int) size, "x"));
+    }
+
+    private static String gunzip(Buffer body) throws IOException {
+        return Okio.buffer(new GzipSource(body)).readUtf8();
+    }
+
+    /** Body of unknown length (-1), e.g. a streamed model. */
+    private static RequestBody streamed(String content) {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return TYPE_TEXT;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                sink.writeUtf8(content);
+            }
+        };
+    }
+
+    @Test
+    void bodyBelowThresholdIsSentAsIs() throws Exception {
+        String content = text(THRESHOLD - 1);
+        RecordedRequest request = post(RequestBody.create(content, TYPE_TEXT));
+
+        assertNull(request.getHeader(CompressionInterceptor.HEADER_CONTENT_ENCODING));
+        assertEquals(content, request.getBody().readUtf8());
+        assertEquals(1, interceptor.getSkippedCount());
+        assertEquals(0, interceptor.getCompressedCount());
+    }
+
+    @Test
+    void bodyAtThresholdIsCompressed() throws Exception {
+        String content = text(THRESHOLD);
+        RecordedRequest request = post(RequestBody.create(content, TYPE_TEXT));
+
+        assertEquals(GzipCodec.ENCODING, request.getHeader(CompressionInterceptor.HEADER_CONTENT_ENCODING));
+        assertEquals(content, gunzip(request.getBody()));
+        assertEquals(1, interceptor.getCompressedCount());
+        assertEquals(THRESHOLD, interceptor.getUncompressedBytes());
+    }
+
+    @Test
+    void streamedBodyWithinThresholdIsSentWithLength() throws Exception {
+        String content = text(THRESHOLD - 1);
+        RecordedRequest request = post(streamed(content));
+
+        assertNull(request.getHeader(CompressionInterceptor.HEADER_CONTENT_ENCODING));
+        assertEquals(String.valueOf(THRESHOLD - 1), request.getHeader("Content-Length"));
+        assertEquals(content, request.getBody().readUtf8());
+        assertEquals(1, interceptor.getSkippedCount());
+    }
+
+    @Test
+    void streamedBodyAboveThresholdIsCompressedChunked() throws Exception {
+        String content = text(THRESHOLD * 10);
+        RecordedRequest request = post(streamed(content));
+
+        assertEquals(GzipCodec.ENCODING, request.getHeader(CompressionInterceptor.HEADER_CONTENT_ENCODING));
+        assertEquals("chunked", request.getHeader("Transfer-Encoding"));
+        assertEquals(content, gunzip(request.getBody()));
+        assertTrue(interceptor.getCompressionRatio() < 1);
+    }
+
+    @Test
+    void hostNotAddedIsNotCompressed() throws Exception {
+        interceptor.addHost("api.example.com");
+        RecordedRequest request = post(RequestBody.create(text(THRESHOLD * 2), TYPE_TEXT));
+
+        assertNull(request.getHeader(CompressionInterceptor.HEADER_CONTENT_ENCODING));
+        assertEquals(0, interceptor.getCompressedCount());
+    }
+
+    @Test
+    void responseIsDecodedByContentEncoding() throws Exception {
+        interceptor.setResponseCodecs(new GzipCodec());
+        String content = text(THRESHOLD * 4);
+        Buffer gzip = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipCodec().encode(gzip))) {
+            sink.writeUtf8(content);
+        }
+        server.enqueue(new MockResponse().setHeader(CompressionInterceptor.HEADER_CONTENT_ENCODING, GzipCodec.ENCODING)
+                .setBody(gzip));
+
+        try (Response response = client.newCall(new Request.Builder().url(server.url("/")).build()).execute()) {
+            assertEquals(content, response.body().string());
+        }
+        assertEquals(GzipCodec.ENCODING, server.takeRequest().getHeader(CompressionInterceptor.HEADER_ACCEPT_ENCODING));
+        assertEquals(1, interceptor.getDecodedCount());
+    }
+}
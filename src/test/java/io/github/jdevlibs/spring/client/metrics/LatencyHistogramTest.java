@@ -0,0 +1,106 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class LatencyHistogramTest {
+
+    private static long upperBound(long micros) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        return histogram.getPercentile(1.0);
+    }
+
+    @Test
+    void valuesBelowSixteenMicrosAreExact() {
+        for (long micros = 0; micros < 16; micros++) {
+            assertEquals(micros, upperBound(micros));
+        }
+    }
+
+    @Test
+    void upperBoundIsWithinRelativeError() {
+        for (long micros = 16; micros < TimeUnit.SECONDS.toMicros(100); micros += 1 + micros / 64) {
+            long bound = upperBound(micros);
+            assertTrue(bound >= micros, micros + " -> " + bound);
+            assertTrue(bound - micros < micros / 8.0, micros + " -> " + bound);
+        }
+    }
+
+    @Test
+    void bucketBoundsAtPowerOfTwo() {
+        assertEquals(17, upperBound(16));
+        assertEquals(17, upperBound(17));
+        assertEquals(19, upperBound(18));
+        assertEquals(31, upperBound(31));
+        assertEquals(35, upperBound(32));
+        assertEquals(1151, upperBound(1024));
+    }
+
+    @Test
+    void valuesAboveRangeShareLastBucket() {
+        long last = (1L << 41) - 1;
+        assertEquals((9L << 37) - 1, upperBound(1L << 40));
+        assertEquals(last, upperBound(last));
+        assertEquals(last, upperBound(1L << 41));
+        assertEquals(last, upperBound(1L << 45));
+        assertEquals(last, upperBound(Long.MAX_VALUE / 1000));
+    }
+
+    @Test
+    void negativeLatencyIsZero() {
+        assertEquals(0, upperBound(-5));
+    }
+
+    @Test
+    void percentileOfSamples() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 100; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getMean(), 0.001);
+
+        long p50 = histogram.getPercentile(0.5);
+        assertTrue(p50 >= 50 && p50 < 50 * 1.125, "p50 " + p50);
+        long p99 = histogram.getPercentile(0.99);
+        assertTrue(p99 >= 99 && p99 < 99 * 1.125, "p99 " + p99);
+        assertEquals(1, histogram.getPercentile(0));
+    }
+
+    @Test
+    void emptyAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(0.5));
+        assertEquals(0, histogram.getMean());
+
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(5));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(0.99));
+    }
+}
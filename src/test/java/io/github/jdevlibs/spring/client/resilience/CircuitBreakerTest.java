@@ -0,0 +1,212 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import io.github.jdevlibs.spring.client.resilience.CircuitBreaker.State;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class CircuitBreakerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(10);
+
+    private static CircuitBreakerConfig config(int windowSize, int minimumCalls, Duration openDuration) {
+        CircuitBreakerConfig config = new CircuitBreakerConfig();
+        config.setSlidingWindowSize(windowSize);
+        config.setMinimumCalls(minimumCalls);
+        config.setOpenDuration(openDuration);
+        config.setHalfOpenCalls(2);
+        return config;
+    }
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        CircuitBreaker breaker = new CircuitBreaker("host", config(10, 4, Duration.ofMinutes(1)));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onResult(FAST, true);
+        }
+        assertEquals(State.CLOSED, breaker.getState());
+
+        breaker.onResult(FAST, true);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void opensAtFailureRateThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker("host", config(10, 4, Duration.ofMinutes(1)));
+        breaker.onResult(FAST, false);
+        breaker.onResult(FAST, false);
+        breaker.onResult(FAST, true);
+        assertEquals(State.CLOSED, breaker.getState());
+
+        breaker.onResult(FAST, true);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void opensAtSlowCallRateThreshold() {
+        CircuitBreakerConfig config = config(10, 2, Duration.ofMinutes(1));
+        config.setSlowCallRateThreshold(50);
+        CircuitBreaker breaker = new CircuitBreaker("host", config);
+        breaker.onResult(FAST, false);
+        breaker.onResult(SLOW, false);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void slidingWindowEvictsOldestCall() {
+        CircuitBreaker breaker = new CircuitBreaker("host", config(4, 4, Duration.ofMinutes(1)));
+        breaker.onResult(FAST, true);
+        breaker.onResult(FAST, false);
+        breaker.onResult(FAST, false);
+        breaker.onResult(FAST, false);
+        // the failure is evicted by the new failure, the rate stays 25%
+        breaker.onResult(FAST, true);
+        assertEquals(State.CLOSED, breaker.getState());
+
+        breaker.onResult(FAST, true);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void rejectsWhileOpen() {
+        CircuitBreaker breaker = new CircuitBreaker("host", config(10, 1, Duration.ofMinutes(1)));
+        breaker.onResult(FAST, true);
+        assertEquals(State.OPEN, breaker.getState());
+
+        assertFalse(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(2, breaker.getRejectedCount());
+    }
+
+    @Test
+    void halfOpenPermitsProbesAndClosesOnSuccess() {
+        CircuitBreaker breaker = new CircuitBreaker("host", config(10, 1, Duration.ZERO));
+        breaker.onResult(FAST, true);
+        assertEquals(State.OPEN, breaker.getState());
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onResult(FAST, false);
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        breaker.onResult(FAST, false);
+        assertEquals(State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void halfOpenFailedProbeOpensAgain() {
+        CircuitBreaker breaker = new CircuitBreaker("host", config(10, 1, Duration.ZERO));
+        breaker.onResult(FAST, true);
+        assertTrue(breaker.tryAcquire());
+        assertEquals(State.HALF_OPEN, breaker.getState());
+
+        breaker.onResult(FAST, true);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void releaseReturnsProbePermit() {
+        CircuitBreaker breaker = new CircuitBreaker("host", config(10, 1, Duration.ZERO));
+        breaker.onResult(FAST, true);
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.release();
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void closedWindowIsResetAfterClose() {
+        CircuitBreaker breaker = new CircuitBreaker("host", config(10, 2, Duration.ZERO));
+        breaker.onResult(FAST, true);
+        breaker.onResult(FAST, true);
+        assertEquals(State.OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        breaker.onResult(FAST, false);
+        breaker.onResult(FAST, false);
+        assertEquals(State.CLOSED, breaker.getState());
+
+        // the failures before open are not counted
+        breaker.onResult(FAST, true);
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void callTimeoutIsRecordedAsFailure() throws Exception {
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry(config(10, 1, Duration.ofMinutes(1)));
+        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(registry)
+                .callTimeout(200, TimeUnit.MILLISECONDS).build();
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setHeadersDelay(2, TimeUnit.SECONDS));
+            server.start();
+
+            Call call = client.newCall(new Request.Builder().url(server.url("/")).build());
+            assertThrows(IOException.class, call::execute);
+            assertEquals(State.OPEN, registry.getCircuitBreakers().iterator().next().getState());
+        } finally {
+            client.dispatcher().executorService().shutdown();
+        }
+    }
+
+    @Test
+    void callCancelledByCallerIsNotRecorded() throws Exception {
+        CircuitBreakerRegistry registry = new CircuitBreakerRegistry(config(10, 1, Duration.ofMinutes(1)));
+        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(registry).build();
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setHeadersDelay(2, TimeUnit.SECONDS));
+            server.start();
+
+            Call call = client.newCall(new Request.Builder().url(server.url("/")).build());
+            CompletableFuture<Void> result = CompletableFuture.runAsync(() -> {
+                try {
+                    call.execute();
+                } catch (IOException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+            server.takeRequest(5, TimeUnit.SECONDS);
+            call.cancel();
+            assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertEquals(State.CLOSED, registry.getCircuitBreakers().iterator().next().getState());
+        } finally {
+            client.dispatcher().executorService().shutdown();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class ConcurrencyLimiterTest {
+
+    private static AimdLimit limit(int initialLimit) {
+        AimdLimit limit = new AimdLimit();
+        limit.setInitialLimit(initialLimit);
+        return limit;
+    }
+
+    @Test
+    void acquiresUpToLimitAndRejectsWithoutQueue() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("host", limit(2), 0, 0, TimeUnit.MILLISECONDS);
+        assertEquals(1, limiter.acquire());
+        assertEquals(2, limiter.acquire());
+        assertEquals(-1, limiter.acquire());
+        assertEquals(1, limiter.getRejectedCount());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void releaseFreesPermit() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("host", limit(1), 0, 0, TimeUnit.MILLISECONDS);
+        assertEquals(1, limiter.acquire());
+        limiter.release(-1, 1, false);
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(1, limiter.acquire());
+    }
+
+    @Test
+    void releaseWithoutSampleKeepsLimit() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("host", limit(4), 0, 0, TimeUnit.MILLISECONDS);
+        limiter.acquire();
+        limiter.release(-1, 4, true);
+        assertEquals(4, limiter.getLimit());
+
+        limiter.acquire();
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(1), 4, true);
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    void waiterAcquiresReleasedPermit() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("host", limit(1), 1, 5, TimeUnit.SECONDS);
+        limiter.acquire();
+        CompletableFuture<Integer> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire();
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        Thread.sleep(50);
+        assertFalse(waiter.isDone());
+
+        limiter.release(-1, 1, false);
+        assertEquals(1, waiter.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void waiterIsRejectedAfterMaxWait() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("host", limit(1), 1, 20, TimeUnit.MILLISECONDS);
+        limiter.acquire();
+        assertEquals(-1, limiter.acquire());
+        assertEquals(1, limiter.getRejectedCount());
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void limitIsAtLeastOne() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("host", limit(1), 0, 0, TimeUnit.MILLISECONDS);
+        limiter.acquire();
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(1), 1, true);
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    void sampleKeepsPermit() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("host", limit(4), 0, 0, TimeUnit.MILLISECONDS);
+        limiter.acquire();
+        limiter.sample(TimeUnit.MILLISECONDS.toNanos(1), 4, true);
+        assertEquals(3, limiter.getLimit());
+        assertEquals(1, limiter.getInFlight());
+
+        limiter.release(-1, 4, false);
+        assertEquals(3, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void slowBodyIsNotSampledAsLatency() throws Exception {
+        AimdLimit algorithm = limit(4);
+        algorithm.setTimeout(Duration.ofMillis(200));
+        ConcurrencyLimiterRegistry registry = new ConcurrencyLimiterRegistry(() -> algorithm, 0, Duration.ZERO);
+        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(registry).build();
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setBody("0123456789").throttleBody(1, 50, TimeUnit.MILLISECONDS));
+            server.start();
+
+            try (Response response = client.newCall(new Request.Builder().url(server.url("/")).build()).execute()) {
+                ConcurrencyLimiter limiter = registry.getLimiters().iterator().next();
+                assertEquals(1, limiter.getInFlight());
+                assertEquals("0123456789", response.body().string());
+                assertEquals(0, limiter.getInFlight());
+                assertEquals(4, limiter.getLimit());
+            }
+        } finally {
+            client.dispatcher().executorService().shutdown();
+        }
+    }
+
+    @Test
+    void callTimeoutIsDropped() throws Exception {
+        ConcurrencyLimiterRegistry registry = new ConcurrencyLimiterRegistry(() -> limit(4), 0, Duration.ZERO);
+        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(registry)
+                .callTimeout(200, TimeUnit.MILLISECONDS).build();
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setHeadersDelay(2, TimeUnit.SECONDS));
+            server.start();
+
+            assertThrows(IOException.class, client.newCall(new Request.Builder().url(server.url("/")).build())::execute);
+            ConcurrencyLimiter limiter = registry.getLimiters().iterator().next();
+            assertEquals(0, limiter.getInFlight());
+            assertEquals(3, limiter.getLimit());
+        } finally {
+            client.dispatcher().executorService().shutdown();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class LimitAlgorithmTest {
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void aimdIncreasesWhenHalfOfLimitIsUsed() {
+        AimdLimit aimd = new AimdLimit();
+        assertEquals(11, aimd.update(10, RTT, 5, false));
+        assertEquals(10, aimd.update(10, RTT, 4, false));
+    }
+
+    @Test
+    void aimdIsBoundedByMaxLimit() {
+        AimdLimit aimd = new AimdLimit();
+        aimd.setMaxLimit(10);
+        assertEquals(10, aimd.update(10, RTT, 10, false));
+    }
+
+    @Test
+    void aimdBacksOffOnDropOrTimeout() {
+        AimdLimit aimd = new AimdLimit();
+        aimd.setTimeout(Duration.ofSeconds(1));
+        assertEquals(9, aimd.update(10, RTT, 10, true));
+        assertEquals(9, aimd.update(10, TimeUnit.SECONDS.toNanos(2), 10, false));
+
+        aimd.setMinLimit(5);
+        assertEquals(5, aimd.update(5, RTT, 5, true));
+    }
+
+    @Test
+    void gradientGrowsWhileLatencyIsStable() {
+        GradientLimit gradient = new GradientLimit();
+        int limit = gradient.getInitialLimit();
+        for (int i = 0; i < 50; i++) {
+            limit = gradient.update(limit, RTT, limit, false);
+        }
+        assertTrue(limit > gradient.getInitialLimit(), "limit " + limit);
+        assertTrue(limit <= gradient.getMaxLimit(), "limit " + limit);
+    }
+
+    @Test
+    void gradientShrinksWhenLatencyGrows() {
+        GradientLimit gradient = new GradientLimit();
+        int limit = 100;
+        for (int i = 0; i < 20; i++) {
+            limit = gradient.update(limit, RTT, limit, false);
+        }
+        int stable = limit;
+        for (int i = 0; i < 20; i++) {
+            limit = gradient.update(limit, RTT * 10, limit, false);
+        }
+        assertTrue(limit < stable, "limit " + limit + " stable " + stable);
+    }
+
+    @Test
+    void gradientShrinksOnDrop() {
+        GradientLimit gradient = new GradientLimit();
+        int limit = gradient.update(50, RTT, 50, true);
+        assertTrue(limit < 50, "limit " + limit);
+    }
+
+    @Test
+    void gradientKeepsLimitWhenApplicationLimited() {
+        GradientLimit gradient = new GradientLimit();
+        assertEquals(50, gradient.update(50, RTT, 10, false));
+        assertEquals(50, gradient.update(50, RTT * 10, 10, false));
+    }
+
+    @Test
+    void gradientIsBoundedByMinLimit() {
+        GradientLimit gradient = new GradientLimit();
+        gradient.setMinLimit(5);
+        int limit = 6;
+        for (int i = 0; i < 50; i++) {
+            limit = gradient.update(limit, RTT, limit, true);
+        }
+        assertEquals(5, limit);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import okhttp3.HttpUrl;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class RateLimiterRegistryTest {
+
+    private static String limiterOf(RateLimiterRegistry registry, String url) {
+        return registry.getRateLimiter(HttpUrl.get(url)).getName();
+    }
+
+    @Test
+    void prefixMatchesOnPathSegmentBoundary() {
+        RateLimiterRegistry registry = new RateLimiterRegistry()
+                .addLimit("https://api.example.com/v1/orders", 10, 1);
+
+        assertEquals("https://api.example.com/v1/orders", limiterOf(registry, "https://api.example.com/v1/orders"));
+        assertEquals("https://api.example.com/v1/orders", limiterOf(registry, "https://api.example.com/v1/orders/1"));
+        assertEquals("https://api.example.com/v1/orders",
+                limiterOf(registry, "https://api.example.com/v1/orders?page=2"));
+        assertEquals("api.example.com:443", limiterOf(registry, "https://api.example.com/v1/orders-archive"));
+        assertEquals("api.example.com:80", limiterOf(registry, "http://api.example.com/v1/orders"));
+    }
+
+    @Test
+    void prefixIsNormalizedByUrl() {
+        RateLimiterRegistry registry = new RateLimiterRegistry()
+                .addLimit("https://API.Example.com:443/v1", 10, 1);
+
+        assertEquals("https://API.Example.com:443/v1", limiterOf(registry, "https://api.example.com/v1/orders"));
+        assertEquals("api.example.com:8443", limiterOf(registry, "https://api.example.com:8443/v1/orders"));
+    }
+
+    @Test
+    void hostAndHostPortRules() {
+        RateLimiterRegistry registry = new RateLimiterRegistry()
+                .addLimit("Api.Example.com", 10, 1)
+                .addLimit("api.example.com:8443", 10, 1);
+
+        assertEquals("Api.Example.com", limiterOf(registry, "https://api.example.com/v1"));
+        assertEquals("api.example.com:8443", limiterOf(registry, "https://api.example.com:8443/v1"));
+        assertEquals("other.example.com:443", limiterOf(registry, "https://other.example.com/v1"));
+    }
+
+    @Test
+    void mostSpecificRuleWins() {
+        RateLimiterRegistry registry = new RateLimiterRegistry()
+                .addLimit("api.example.com", 100, 10)
+                .addLimit("https://api.example.com/v1", 50, 5)
+                .addLimit("https://api.example.com/v1/orders", 10, 1)
+                .addLimit("api.example.com:443", 80, 8);
+
+        assertEquals("https://api.example.com/v1/orders", limiterOf(registry, "https://api.example.com/v1/orders/1"));
+        assertEquals("https://api.example.com/v1", limiterOf(registry, "https://api.example.com/v1/items"));
+        assertEquals("api.example.com:443", limiterOf(registry, "https://api.example.com/v2"));
+        assertEquals("api.example.com", limiterOf(registry, "http://api.example.com/v2"));
+    }
+
+    @Test
+    void invalidPrefixIsRejected() {
+        RateLimiterRegistry registry = new RateLimiterRegistry();
+        assertThrows(IllegalArgumentException.class, () -> registry.addLimit("ftp://api.example.com/v1", 10, 1));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.client.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class RateLimiterTest {
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MAX_WAIT = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    void burstIsPermittedWithoutWait() {
+        RateLimiter limiter = new RateLimiter("host", 10, 5);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.reserve(0));
+        }
+        assertEquals(-1, limiter.reserve(0));
+        assertEquals(5, limiter.getPermittedCount());
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    void permitsAfterBurstAreSpacedByInterval() {
+        RateLimiter limiter = new RateLimiter("host", 10, 2);
+        assertEquals(0, limiter.reserve(MAX_WAIT));
+        assertEquals(0, limiter.reserve(MAX_WAIT));
+
+        long first = limiter.reserve(MAX_WAIT);
+        long second = limiter.reserve(MAX_WAIT);
+        assertTrue(first > 0 && first <= INTERVAL, "wait " + first);
+        assertTrue(second - first >= INTERVAL - TimeUnit.MILLISECONDS.toNanos(5) && second - first <= INTERVAL,
+                "wait " + second);
+    }
+
+    @Test
+    void reserveIsRejectedAboveMaxWait() {
+        RateLimiter limiter = new RateLimiter("host", 10, 1);
+        assertEquals(0, limiter.reserve(0));
+        assertEquals(-1, limiter.reserve(TimeUnit.MILLISECONDS.toNanos(10)));
+        // the rejected reserve does not take a permit
+        long wait = limiter.reserve(MAX_WAIT);
+        assertTrue(wait > 0 && wait <= INTERVAL, "wait " + wait);
+    }
+
+    @Test
+    void pauseDelaysPermitsWithoutBurst() {
+        RateLimiter limiter = new RateLimiter("host", 10, 5);
+        limiter.pause(1, TimeUnit.SECONDS);
+        assertEquals(-1, limiter.reserve(0));
+
+        long first = limiter.reserve(MAX_WAIT);
+        long second = limiter.reserve(MAX_WAIT);
+        long pause = TimeUnit.SECONDS.toNanos(1);
+        assertTrue(first > pause - TimeUnit.MILLISECONDS.toNanos(100) && first <= pause, "wait " + first);
+        assertTrue(second - first >= INTERVAL - TimeUnit.MILLISECONDS.toNanos(5), "wait " + second);
+    }
+
+    @Test
+    void pauseDoesNotShortenEarlierPause() {
+        RateLimiter limiter = new RateLimiter("host", 10, 1);
+        limiter.pause(1, TimeUnit.SECONDS);
+        limiter.pause(10, TimeUnit.MILLISECONDS);
+        long wait = limiter.reserve(MAX_WAIT);
+        assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(900), "wait " + wait);
+    }
+
+    @Test
+    void unlimitedNeverWaits() {
+        RateLimiter limiter = new RateLimiter("host", 0, 1);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, limiter.reserve(0));
+        }
+    }
+}
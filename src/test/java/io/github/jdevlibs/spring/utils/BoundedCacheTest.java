@@ -0,0 +1,66 @@
+/*
+ * ---------------------------------------------------------------------------
+ *  Copyright (c)  2023-2023.  the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ * ---------------------------------------------------------------------------
+ */
+package io.github.jdevlibs.spring.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author supot.jdev
+ * @version 1.0
+ */
+class BoundedCacheTest {
+
+    @Test
+    void returnsCachedValueOfKey() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2, new LongAdder());
+        assertEquals("a", cache.putIfAbsent("key", "a"));
+        assertEquals("a", cache.putIfAbsent("key", "b"));
+        assertEquals("a", cache.get("key"));
+    }
+
+    @Test
+    void evictsOldestEntryWhenFull() {
+        LongAdder evictions = new LongAdder();
+        BoundedCache<String, String> cache = new BoundedCache<>(2, evictions);
+        cache.putIfAbsent("a", "a");
+        cache.putIfAbsent("b", "b");
+        cache.putIfAbsent("c", "c");
+
+        assertNull(cache.get("a"));
+        assertEquals("b", cache.get("b"));
+        assertEquals("c", cache.get("c"));
+        assertEquals(1, evictions.sum());
+
+        // the evicted key is cached again on next lookup
+        assertEquals("a", cache.putIfAbsent("a", "a"));
+        assertEquals("a", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(2, evictions.sum());
+    }
+
+    @Test
+    void zeroSizeDoesNotCache() {
+        BoundedCache<String, String> cache = new BoundedCache<>(0, new LongAdder());
+        assertEquals("a", cache.putIfAbsent("a", "a"));
+        assertNull(cache.get("a"));
+    }
+}